@@ -0,0 +1,73 @@
+package io.jenkins.plugins.artifactrepo;
+
+import io.jenkins.plugins.artifactrepo.benchmark.Payloads;
+import io.jenkins.plugins.artifactrepo.helper.Constants.ParameterType;
+import io.jenkins.plugins.artifactrepo.model.ParameterResult;
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the processing of a connector result as done on the build page, i.e. submit value
+ * handling, filtering, sorting, limiting and preselection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ArtifactRepoParamDefinitionBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    @Param({".+", ".*-sources\\.jar"})
+    private String filterRegex;
+
+    @Param({"asc", "desc"})
+    private String sortOrder;
+
+    private ArtifactRepoParamDefinition definition;
+    private List<ResultEntry> entries;
+
+    @Setup
+    public void setup() {
+        definition = new ArtifactRepoParamDefinition(
+                "ARTIFACT",
+                "",
+                "nexus",
+                Payloads.SERVER_URL,
+                "",
+                false,
+                null,
+                ParameterType.PATH,
+                "*",
+                "",
+                "",
+                null,
+                null,
+                true,
+                "50",
+                filterRegex,
+                sortOrder,
+                "regex",
+                "core-.*",
+                "both");
+        entries = Payloads.resultEntries(size);
+    }
+
+    @Benchmark
+    public ParameterResult processResult() {
+        return definition.processResult(entries);
+    }
+}
@@ -0,0 +1,189 @@
+package io.jenkins.plugins.artifactrepo.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import lombok.Getter;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * An embedded stand-in for Nexus and Artifactory that serves synthetic payloads of the endpoints
+ * used by the connectors. Both products are served by the same instance, i.e. the server URL of the
+ * parameter is simply the {@link #getUrl() URL} of this server.
+ *
+ * <p>Supported endpoints:
+ *
+ * <ul>
+ *   <li><code>GET /service/rest/v1/search</code> (paginated via continuation tokens)
+ *   <li><code>GET /service/rest/v1/repositories</code>
+ *   <li><code>GET /api/search/artifact</code>
+ *   <li><code>POST /api/search/aql</code>
+ *   <li><code>GET /api/repositories</code>
+ * </ul>
+ *
+ * <p>All payloads are generated once on startup so serving a request costs as little as possible
+ * and does not distort measurements done in the same JVM. Every request can be delayed by a fixed
+ * latency and a share of the requests can be answered with an error. Conditional requests using
+ * the returned ETag are answered with 304 (not modified).
+ */
+public class FakeRepositoryServer implements AutoCloseable {
+
+    public static final String THREAD_NAME = "FakeRepositoryServer";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final List<byte[]> nexusPages = new ArrayList<>();
+    private final byte[] nexusRepositories;
+    private final byte[] artifactorySearch;
+    private final byte[] artifactoryAql;
+    private final byte[] artifactoryRepositories;
+    private final Map<byte[], String> etags = new IdentityHashMap<>();
+    private final long latencyMillis;
+    private final double errorRate;
+
+    @Getter
+    private final AtomicLong requestCount = new AtomicLong();
+
+    @Getter
+    private final AtomicLong errorCount = new AtomicLong();
+
+    /**
+     * @param assets The number of assets returned by the search endpoints.
+     * @param pageSize The number of assets per page of the Nexus search API. The number of pages a
+     *     connector has to follow is <code>assets / pageSize</code>.
+     * @param latencyMillis A fixed delay added to every response.
+     * @param errorRate The share of requests (0.0 to 1.0) answered with an internal server error.
+     */
+    public FakeRepositoryServer(int assets, int pageSize, long latencyMillis, double errorRate) throws IOException {
+        Validate.isTrue(assets >= 0, "The number of assets must not be negative");
+        Validate.isTrue(pageSize > 0, "The page size must be greater than 0");
+        Validate.inclusiveBetween(0.0, 1.0, errorRate, "The error rate must be between 0.0 and 1.0");
+
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+
+        List<String> fileNames = Payloads.fileNames(assets);
+        int pages = Math.max(1, (assets + pageSize - 1) / pageSize);
+        for (int page = 0; page < pages; page++) {
+            List<String> content = fileNames.subList(page * pageSize, Math.min(assets, (page + 1) * pageSize));
+            String token = page + 1 < pages ? String.valueOf(page + 1) : null;
+            nexusPages.add(Payloads.nexusSearchPage(content, token));
+        }
+        nexusRepositories = Payloads.nexusRepositories(30);
+        artifactorySearch = Payloads.artifactorySearchResult(fileNames);
+        artifactoryAql = Payloads.artifactoryAqlResult(fileNames);
+        artifactoryRepositories = Payloads.artifactoryRepositories(30);
+        Stream.concat(
+                        nexusPages.stream(),
+                        Stream.of(nexusRepositories, artifactorySearch, artifactoryAql, artifactoryRepositories))
+                .forEach(payload -> etags.put(payload, "\"" + Integer.toHexString(Arrays.hashCode(payload)) + "\""));
+
+        executor = Executors.newCachedThreadPool(new NamingThreadFactory(new DaemonThreadFactory(), THREAD_NAME));
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/service/rest/v1/search", exchange -> handle(exchange, this::nexusSearch));
+        server.createContext("/service/rest/v1/repositories", exchange -> handle(exchange, e -> nexusRepositories));
+        server.createContext("/api/search/artifact", exchange -> handle(exchange, e -> artifactorySearch));
+        server.createContext("/api/search/aql", exchange -> handle(exchange, e -> artifactoryAql));
+        server.createContext("/api/repositories", exchange -> handle(exchange, e -> artifactoryRepositories));
+        server.start();
+    }
+
+    /** Returns the base URL to be used as server URL of a parameter. */
+    public String getUrl() {
+        InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    /** Returns the number of pages a full Nexus search consists of. */
+    public int getNexusPageCount() {
+        return nexusPages.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private byte[] nexusSearch(@Nonnull HttpExchange exchange) {
+        String query = StringUtils.defaultString(exchange.getRequestURI().getQuery());
+        String token = StringUtils.substringBefore(StringUtils.substringAfter(query, "continuationToken="), "&");
+        int page = StringUtils.isNumeric(token) ? Integer.parseInt(token) : 0;
+        return page < nexusPages.size() ? nexusPages.get(page) : null;
+    }
+
+    private void handle(@Nonnull HttpExchange exchange, @Nonnull Endpoint endpoint) throws IOException {
+        requestCount.incrementAndGet();
+        try {
+            // the request body (e.g. an AQL query) is not evaluated but must be consumed
+            try (InputStream body = exchange.getRequestBody()) {
+                IOUtils.skip(body, Long.MAX_VALUE);
+            }
+            delay();
+
+            byte[] payload = endpoint.payload(exchange);
+            if (payload == null) {
+                respond(exchange, 404, "{\"error\":\"not found\"}".getBytes(StandardCharsets.UTF_8));
+            } else if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                errorCount.incrementAndGet();
+                respond(exchange, 500, "{\"error\":\"injected failure\"}".getBytes(StandardCharsets.UTF_8));
+            } else if (getEtag(payload).equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                exchange.getResponseHeaders().set("ETag", getEtag(payload));
+                respond(exchange, 200, payload);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void respond(@Nonnull HttpExchange exchange, int rc, @Nonnull byte[] payload) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(rc, payload.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(payload);
+        }
+    }
+
+    private String getEtag(@Nonnull byte[] payload) {
+        return etags.get(payload);
+    }
+
+    private void delay() {
+        if (latencyMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        byte[] payload(@Nonnull HttpExchange exchange);
+    }
+}
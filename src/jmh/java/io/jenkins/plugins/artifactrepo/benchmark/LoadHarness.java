@@ -0,0 +1,266 @@
+package io.jenkins.plugins.artifactrepo.benchmark;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+import io.jenkins.plugins.artifactrepo.ArtifactRepoParamDefinition;
+import io.jenkins.plugins.artifactrepo.helper.ResultCache;
+import io.jenkins.plugins.artifactrepo.model.FormatType;
+import io.jenkins.plugins.artifactrepo.model.ParameterResult;
+import io.jenkins.plugins.artifactrepo.model.RepoType;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.jvnet.hudson.test.JenkinsRule;
+
+/**
+ * Drives {@link ArtifactRepoParamDefinition#getResult()} concurrently against a {@link
+ * FakeRepositoryServer} and reports latency percentiles, throughput and allocation rates. A
+ * temporary Jenkins instance is started since the plugin depends on the credentials and proxy
+ * configuration of Jenkins.
+ *
+ * <p>The harness is configured by <code>key=value</code> arguments, see {@link #DEFAULTS} for the
+ * available options and their default values.
+ */
+public class LoadHarness {
+
+    private static final String CREDENTIALS_ID = "load-harness";
+    private static final String WORKER_NAME = "LoadHarness.worker";
+    private static final String PLUGIN_THREADS = "ArtifactRepoParam";
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            // number of concurrent callers, i.e. users opening the build page at the same time
+            Map.entry("threads", "16"),
+            // measured calls per caller
+            Map.entry("iterations", "50"),
+            // calls per caller before the measurement starts
+            Map.entry("warmup", "5"),
+            // nexus or artifactory
+            Map.entry("serverType", "nexus"),
+            // path, version or repository
+            Map.entry("paramType", "path"),
+            // search, aqlCreated or aqlModified (Artifactory only)
+            Map.entry("searchMode", "search"),
+            // number of assets returned by the fake server
+            Map.entry("assets", "10000"),
+            // assets per page of the Nexus search API
+            Map.entry("pageSize", "500"),
+            // latency of every request in ms
+            Map.entry("latency", "20"),
+            // share of requests answered with an error
+            Map.entry("errorRate", "0.0"),
+            // whether the result cache is active
+            Map.entry("cache", "false"));
+
+    public static void main(String[] args) throws Throwable {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            String key = StringUtils.substringBefore(arg, "=");
+            if (!DEFAULTS.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown option '" + key + "', valid options: " + DEFAULTS.keySet());
+            }
+            options.put(key, StringUtils.substringAfter(arg, "="));
+        }
+
+        // must be set before the cache class gets initialized
+        if (!Boolean.parseBoolean(options.get("cache"))) {
+            System.setProperty(ResultCache.class.getName() + ".ttlSeconds", "0");
+        }
+
+        JenkinsRule jenkins = new JenkinsRule();
+        jenkins.timeout = 0;
+        Statement harness = new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                run(options);
+            }
+        };
+        jenkins.apply(harness, Description.createTestDescription(LoadHarness.class, "run"))
+                .evaluate();
+        System.exit(0);
+    }
+
+    private static void run(@Nonnull Map<String, String> options) throws Exception {
+        SystemCredentialsProvider.getInstance()
+                .getCredentials()
+                .add(new UsernamePasswordCredentialsImpl(
+                        CredentialsScope.GLOBAL, CREDENTIALS_ID, "", "admin", "admin"));
+
+        int threads = Integer.parseInt(options.get("threads"));
+        int iterations = Integer.parseInt(options.get("iterations"));
+        int warmup = Integer.parseInt(options.get("warmup"));
+
+        try (FakeRepositoryServer server = new FakeRepositoryServer(
+                Integer.parseInt(options.get("assets")),
+                Integer.parseInt(options.get("pageSize")),
+                Long.parseLong(options.get("latency")),
+                Double.parseDouble(options.get("errorRate")))) {
+
+            AtomicInteger failures = new AtomicInteger();
+            CountDownLatch warmedUp = new CountDownLatch(threads);
+            CountDownLatch start = new CountDownLatch(1);
+
+            // all callers share one definition just like all build page requests of a job do
+            ArtifactRepoParamDefinition definition = createDefinition(server.getUrl(), options);
+
+            AtomicInteger workerId = new AtomicInteger();
+            ExecutorService workers = Executors.newFixedThreadPool(
+                    threads, r -> new Thread(r, WORKER_NAME + "-" + workerId.incrementAndGet()));
+
+            Callable<long[]> worker = () -> {
+                for (int i = 0; i < warmup; i++) {
+                    definition.getResult();
+                }
+                warmedUp.countDown();
+                start.await();
+
+                long[] latencies = new long[iterations];
+                for (int i = 0; i < iterations; i++) {
+                    long begin = System.nanoTime();
+                    ParameterResult result = definition.getResult();
+                    latencies[i] = System.nanoTime() - begin;
+                    if (result.isError()) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return latencies;
+            };
+
+            List<Future<long[]>> results = Arrays.stream(new int[threads])
+                    .mapToObj(i -> workers.submit(worker))
+                    .collect(Collectors.toList());
+
+            warmedUp.await();
+            long requestsBefore = server.getRequestCount().get();
+            Map<Long, Long> allocatedBefore = getAllocatedBytes();
+            long begin = System.nanoTime();
+            start.countDown();
+
+            long[] latencies = new long[threads * iterations];
+            for (int i = 0; i < threads; i++) {
+                System.arraycopy(results.get(i).get(), 0, latencies, i * iterations, iterations);
+            }
+            long duration = System.nanoTime() - begin;
+            long allocated = getAllocatedDelta(allocatedBefore);
+            long requests = server.getRequestCount().get() - requestsBefore;
+            workers.shutdown();
+
+            report(options, server, latencies, duration, allocated, requests, failures.get());
+        }
+    }
+
+    private static ArtifactRepoParamDefinition createDefinition(
+            @Nonnull String serverUrl, @Nonnull Map<String, String> options) {
+        ArtifactRepoParamDefinition definition = new ArtifactRepoParamDefinition(
+                "ARTIFACT",
+                "",
+                options.get("serverType"),
+                serverUrl,
+                CREDENTIALS_ID,
+                false,
+                null,
+                options.get("paramType"),
+                "*",
+                "",
+                ".+-(\\d+\\.\\d+\\.\\d+)(-.+)?\\.jar",
+                RepoType.testValue(),
+                FormatType.testValue(),
+                false,
+                "50",
+                ".+",
+                "desc",
+                "first",
+                "",
+                "both");
+        definition.setSearchMode(options.get("searchMode"));
+        return definition;
+    }
+
+    /**
+     * Returns the bytes allocated so far by the threads doing the work of the plugin, i.e. the
+     * callers and the thread pools of the plugin. Threads of the fake server and of Jenkins are
+     * ignored.
+     */
+    private static Map<Long, Long> getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        Map<Long, Long> allocated = new HashMap<>();
+        for (ThreadInfo info : threadBean.getThreadInfo(threadBean.getAllThreadIds())) {
+            if (info != null
+                    && StringUtils.startsWithAny(info.getThreadName(), WORKER_NAME, PLUGIN_THREADS)) {
+                allocated.put(info.getThreadId(), threadBean.getThreadAllocatedBytes(info.getThreadId()));
+            }
+        }
+        return allocated;
+    }
+
+    private static long getAllocatedDelta(@Nonnull Map<Long, Long> before) {
+        return getAllocatedBytes().entrySet().stream()
+                .mapToLong(e -> e.getValue() - before.getOrDefault(e.getKey(), 0L))
+                .sum();
+    }
+
+    private static void report(
+            @Nonnull Map<String, String> options,
+            @Nonnull FakeRepositoryServer server,
+            @Nonnull long[] latencies,
+            long duration,
+            long allocated,
+            long requests,
+            int failures) {
+        Arrays.sort(latencies);
+        double seconds = duration / (double) TimeUnit.SECONDS.toNanos(1);
+        int calls = latencies.length;
+
+        StringBuilder report = new StringBuilder("\nArtifact Repository Parameter - load harness\n");
+        options.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> report.append(String.format(Locale.ROOT, "  %-12s %s%n", e.getKey(), e.getValue())));
+        report.append(String.format(Locale.ROOT, "  %-12s %d%n", "nexusPages", server.getNexusPageCount()));
+        report.append('\n');
+        line(report, "calls", "%d", calls);
+        line(report, "failures", "%d", failures);
+        line(report, "requests", "%d (%.2f per call)", requests, requests / (double) calls);
+        line(report, "duration", "%.2f s", seconds);
+        line(report, "throughput", "%.1f calls/s", calls / seconds);
+        line(report, "latency p50", "%.2f ms", millis(percentile(latencies, 50)));
+        line(report, "latency p90", "%.2f ms", millis(percentile(latencies, 90)));
+        line(report, "latency p99", "%.2f ms", millis(percentile(latencies, 99)));
+        line(report, "latency max", "%.2f ms", millis(latencies[calls - 1]));
+        line(report, "allocated", "%.1f MB (%.1f KB per call)", allocated / 1048576.0, allocated / 1024.0 / calls);
+        line(report, "alloc rate", "%.1f MB/s", allocated / 1048576.0 / seconds);
+        System.out.println(report);
+    }
+
+    private static void line(@Nonnull StringBuilder report, @Nonnull String label, String format, Object... args) {
+        report.append(String.format(Locale.ROOT, "%-14s ", label))
+                .append(String.format(Locale.ROOT, format, args))
+                .append('\n');
+    }
+
+    private static long percentile(@Nonnull long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
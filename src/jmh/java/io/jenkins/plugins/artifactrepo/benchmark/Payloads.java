@@ -0,0 +1,185 @@
+package io.jenkins.plugins.artifactrepo.benchmark;
+
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.annotation.Nonnull;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Generates synthetic but realistic looking data for the benchmarks. A fixed seed is used so every
+ * benchmark run works on exactly the same input.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Payloads {
+
+    public static final String SERVER_URL = "https://repo.example.com";
+    private static final long SEED = 42L;
+    private static final String[] NAMES = {"core", "api", "service", "client", "web-app", "common-utils"};
+    private static final String[] CLASSIFIERS = {"", "-sources", "-javadoc", "-tests"};
+
+    /** Returns the given number of artifact file names like <code>service-1.12.3-sources.jar</code>. */
+    public static List<String> fileNames(int count) {
+        Random random = new Random(SEED);
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(fileName(random));
+        }
+        return result;
+    }
+
+    /** Returns the given number of result entries as a connector would return them. */
+    public static List<ResultEntry> resultEntries(int count) {
+        Random random = new Random(SEED);
+        List<ResultEntry> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = fileName(random);
+            result.add(new ResultEntry(name, SERVER_URL + "/repository/releases/com/example/" + name));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a single page of the Nexus search API containing the given number of assets. Each item
+     * holds the artifact itself along with its checksum files.
+     */
+    public static byte[] nexusSearchPage(int assets) {
+        return nexusSearchPage(fileNames(assets), null);
+    }
+
+    /** Returns a page of the Nexus search API with one item per given file name. */
+    public static byte[] nexusSearchPage(@Nonnull List<String> fileNames, String continuationToken) {
+        StringBuilder json = new StringBuilder(fileNames.size() * 400);
+        json.append("{\"items\":[");
+        for (int i = 0; i < fileNames.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            String name = fileNames.get(i);
+            String url = SERVER_URL + "/repository/releases/com/example/" + name;
+            json.append("{\"id\":\"")
+                    .append(Integer.toHexString(name.hashCode()))
+                    .append("\",\"repository\":\"releases\",\"format\":\"maven2\",\"group\":\"com.example\",")
+                    .append("\"name\":\"")
+                    .append(name)
+                    .append("\",\"assets\":[");
+            appendNexusAsset(json, url);
+            json.append(',');
+            appendNexusAsset(json, url + ".md5");
+            json.append(',');
+            appendNexusAsset(json, url + ".sha1");
+            json.append("]}");
+        }
+        json.append("],\"continuationToken\":");
+        json.append(continuationToken == null ? "null" : "\"" + continuationToken + "\"");
+        json.append('}');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Returns the response of the Artifactory quick search API containing the given number of results. */
+    public static byte[] artifactorySearchResult(int results) {
+        return artifactorySearchResult(fileNames(results));
+    }
+
+    /** Returns the response of the Artifactory quick search API with one result per given file name. */
+    public static byte[] artifactorySearchResult(@Nonnull List<String> fileNames) {
+        StringBuilder json = new StringBuilder(fileNames.size() * 100);
+        json.append("{\"results\":[");
+        for (int i = 0; i < fileNames.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"uri\":\"")
+                    .append(SERVER_URL)
+                    .append("/artifactory/api/storage/libs-release/com/example/")
+                    .append(fileNames.get(i))
+                    .append("\"}");
+        }
+        json.append("]}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Returns the response of an Artifactory AQL search with one item per given file name. */
+    public static byte[] artifactoryAqlResult(@Nonnull List<String> fileNames) {
+        StringBuilder json = new StringBuilder(fileNames.size() * 80);
+        json.append("{\"results\":[");
+        for (int i = 0; i < fileNames.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"repo\":\"libs-release\",\"path\":\"com/example\",\"name\":\"")
+                    .append(fileNames.get(i))
+                    .append("\"}");
+        }
+        json.append("],\"range\":{\"start_pos\":0,\"end_pos\":")
+                .append(fileNames.size())
+                .append(",\"total\":")
+                .append(fileNames.size())
+                .append("}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Returns the response of the Nexus repositories API with the given number of Maven repositories. */
+    public static byte[] nexusRepositories(int count) {
+        String[] types = {"hosted", "proxy", "group"};
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"maven-")
+                    .append(i)
+                    .append("\",\"format\":\"maven2\",\"type\":\"")
+                    .append(types[i % types.length])
+                    .append("\",\"url\":\"")
+                    .append(SERVER_URL)
+                    .append("/repository/maven-")
+                    .append(i)
+                    .append("\"}");
+        }
+        json.append(']');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Returns the response of the Artifactory repositories API with the given number of Maven repositories. */
+    public static byte[] artifactoryRepositories(int count) {
+        String[] types = {"LOCAL", "REMOTE", "VIRTUAL"};
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"key\":\"libs-")
+                    .append(i)
+                    .append("\",\"type\":\"")
+                    .append(types[i % types.length])
+                    .append("\",\"packageType\":\"Maven\",\"url\":\"")
+                    .append(SERVER_URL)
+                    .append("/artifactory/libs-")
+                    .append(i)
+                    .append("\"}");
+        }
+        json.append(']');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendNexusAsset(@Nonnull StringBuilder json, @Nonnull String url) {
+        json.append("{\"downloadUrl\":\"")
+                .append(url)
+                .append("\",\"path\":\"")
+                .append(url.substring(SERVER_URL.length()))
+                .append("\",\"checksum\":{\"sha1\":\"da39a3ee5e6b4b0d3255bfef95601890afd80709\"}}");
+    }
+
+    private static String fileName(@Nonnull Random random) {
+        return NAMES[random.nextInt(NAMES.length)]
+                + "-" + random.nextInt(5)
+                + "." + random.nextInt(30)
+                + "." + random.nextInt(120)
+                + CLASSIFIERS[random.nextInt(CLASSIFIERS.length)]
+                + ".jar";
+    }
+}
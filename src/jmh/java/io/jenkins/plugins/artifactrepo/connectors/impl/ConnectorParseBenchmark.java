@@ -0,0 +1,48 @@
+package io.jenkins.plugins.artifactrepo.connectors.impl;
+
+import io.jenkins.plugins.artifactrepo.benchmark.Payloads;
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures parsing the artifact search responses of the connectors. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class ConnectorParseBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private byte[] nexusPayload;
+    private byte[] artifactoryPayload;
+
+    @Setup
+    public void setup() {
+        nexusPayload = Payloads.nexusSearchPage(size);
+        artifactoryPayload = Payloads.artifactorySearchResult(size);
+    }
+
+    @Benchmark
+    public Nexus.Page<ResultEntry> nexusArtifacts() {
+        return Nexus.parseArtifactsPayload(new ByteArrayInputStream(nexusPayload));
+    }
+
+    @Benchmark
+    public List<ResultEntry> artifactoryArtifacts() {
+        return Artifactory.parseArtifactsPayload(new ByteArrayInputStream(artifactoryPayload));
+    }
+}
@@ -0,0 +1,43 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import io.jenkins.plugins.artifactrepo.benchmark.Payloads;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures sorting artifact names with the {@link AlphanumComparator}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class AlphanumComparatorBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private final AlphanumComparator comparator = new AlphanumComparator();
+    private List<String> names;
+
+    @Setup
+    public void setup() {
+        names = Payloads.fileNames(size);
+    }
+
+    @Benchmark
+    public List<String> sort() {
+        List<String> copy = new ArrayList<>(names);
+        copy.sort(comparator);
+        return copy;
+    }
+}
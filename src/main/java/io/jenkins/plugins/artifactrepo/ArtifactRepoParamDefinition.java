@@ -1,22 +1,37 @@
 package io.jenkins.plugins.artifactrepo;
 
-import static java.util.function.Predicate.not;
-
 import hudson.Extension;
+import hudson.model.Item;
 import hudson.model.ParameterDefinition;
 import hudson.model.ParameterValue;
 import io.jenkins.plugins.artifactrepo.connectors.Connector;
+import io.jenkins.plugins.artifactrepo.connectors.ConnectorDescriptor;
+import io.jenkins.plugins.artifactrepo.connectors.ConnectorDescriptor.Capability;
 import io.jenkins.plugins.artifactrepo.helper.AlphanumComparator;
+import io.jenkins.plugins.artifactrepo.helper.ArtifactIndex;
+import io.jenkins.plugins.artifactrepo.helper.ConnectorExecutor;
 import io.jenkins.plugins.artifactrepo.helper.Constants.ParameterType;
+import io.jenkins.plugins.artifactrepo.helper.Constants.SearchMode;
+import io.jenkins.plugins.artifactrepo.helper.PatternCache;
+import io.jenkins.plugins.artifactrepo.helper.PluginMetrics;
+import io.jenkins.plugins.artifactrepo.helper.ResultCache;
+import io.jenkins.plugins.artifactrepo.helper.TopK;
 import io.jenkins.plugins.artifactrepo.model.ArtifactRepoParamProxy;
+import io.jenkins.plugins.artifactrepo.model.ConnectionProfile;
 import io.jenkins.plugins.artifactrepo.model.FormatType;
+import io.jenkins.plugins.artifactrepo.model.ParameterResult;
+import io.jenkins.plugins.artifactrepo.model.QueryKey;
 import io.jenkins.plugins.artifactrepo.model.RepoType;
 import io.jenkins.plugins.artifactrepo.model.ResultEntry;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.logging.Level;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.java.Log;
 import net.sf.json.JSONArray;
@@ -24,6 +39,7 @@ import net.sf.json.JSONObject;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.StaplerRequest;
 
 @Log
@@ -45,6 +61,12 @@ public class ArtifactRepoParamDefinition extends ParameterDefinition {
     private final String versionRegex;
     private final RepoType repoType;
     private final FormatType formatType;
+    private String searchMode = SearchMode.SEARCH;
+    private boolean useIndex = false;
+    private int connectTimeout = 0;
+    private int socketTimeout = 0;
+    private int requestTimeout = 0;
+
     // display options
     private final boolean multiSelection;
     private final int resultsCount;
@@ -54,7 +76,18 @@ public class ArtifactRepoParamDefinition extends ParameterDefinition {
     private final String selectRegex;
     private final String selectRegexStyle;
     private final String submitValue;
-    private boolean exceptionThrown = false;
+    // no longer used, kept to read configurations stored by older versions
+    @Getter(AccessLevel.NONE)
+    private transient boolean exceptionThrown;
+    // compiled regex patterns, created lazily (also after deserialization)
+    @Getter(AccessLevel.NONE)
+    private transient volatile Pattern versionPattern;
+
+    @Getter(AccessLevel.NONE)
+    private transient volatile Pattern filterPattern;
+
+    @Getter(AccessLevel.NONE)
+    private transient volatile Pattern selectPattern;
 
     /** Constructor is used during connection validation test. */
     ArtifactRepoParamDefinition(
@@ -143,40 +176,122 @@ public class ArtifactRepoParamDefinition extends ParameterDefinition {
         this.submitValue = Optional.ofNullable(submitValue).map(String::trim).orElse("both");
     }
 
+    @DataBoundSetter
+    public void setSearchMode(String searchMode) {
+        this.searchMode = Optional.ofNullable(searchMode)
+                .map(String::trim)
+                .filter(StringUtils::isNotBlank)
+                .orElse(SearchMode.SEARCH);
+    }
+
+    @DataBoundSetter
+    public void setUseIndex(boolean useIndex) {
+        this.useIndex = useIndex;
+    }
+
+    /** The max. seconds to establish a connection to the server, 0 to use the default. */
+    @DataBoundSetter
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = Math.max(0, connectTimeout);
+    }
+
+    /** The max. seconds to wait for data from the server, 0 to use the default. */
+    @DataBoundSetter
+    public void setSocketTimeout(int socketTimeout) {
+        this.socketTimeout = Math.max(0, socketTimeout);
+    }
+
+    /** The max. seconds to wait for all requests needed to get the result, 0 to use the default. */
+    @DataBoundSetter
+    public void setRequestTimeout(int requestTimeout) {
+        this.requestTimeout = Math.max(0, requestTimeout);
+    }
+
+    // configurations stored before the option was introduced do not contain a value
+    public String getSearchMode() {
+        return StringUtils.defaultIfBlank(searchMode, SearchMode.SEARCH);
+    }
+
+    /**
+     * Returns the number of entries the repository may limit its result to or 0 if all entries are
+     * required. A limit is only possible if the connector orders and limits the results itself (e.g.
+     * AQL search) and no filter regex needs to be applied afterwards.
+     */
+    public int getQueryLimit() {
+        boolean limited = ParameterType.PATH.equals(paramType) && supports(Capability.SERVER_LIMIT);
+        return limited && ".+".equals(filterRegex) ? resultsCount : 0;
+    }
+
+    /**
+     * Returns the number of distinct versions a repository may stop after or 0 if all versions are
+     * required. Connectors that list versions newest first may stop early as long as the newest
+     * versions are displayed and no filter regex needs to be applied afterwards.
+     */
+    public int getVersionLimit() {
+        boolean limited = ParameterType.VERSION.equals(paramType) && supports(Capability.SERVER_LIMIT);
+        return limited && "desc".equals(sortOrder) && ".+".equals(filterRegex) ? resultsCount : 0;
+    }
+
+    private boolean supports(@Nonnull Capability capability) {
+        return ConnectorDescriptor.byId(serverType)
+                .map(descriptor -> descriptor.supports(this, capability))
+                .orElse(false);
+    }
+
     /** Request data from the target instance to display as build parameter. */
-    public Map<String, ResultEntry> getResult() {
-        exceptionThrown = false;
+    public ParameterResult getResult() {
+        return getResult(null);
+    }
+
+    /**
+     * Request data from the target instance to display as build parameter. Credentials are resolved
+     * in the context of the given item, i.e. the job the parameter belongs to.
+     *
+     * @return A new result for every call, the definition itself is not modified.
+     */
+    public ParameterResult getResult(@CheckForNull Item item) {
+        long start = System.nanoTime();
         List<ResultEntry> repoEntries;
         try {
-            repoEntries = Connector.getInstance(this).getResults();
+            ConnectionProfile connection = ConnectionProfile.of(this, item);
+            QueryKey key = QueryKey.of(this, connection);
+            PluginMetrics.Tags tags = PluginMetrics.Tags.of(this);
+            Supplier<List<ResultEntry>> request = () -> PluginMetrics.time(
+                    PluginMetrics.CONNECTOR_RESULTS, tags, () -> Connector.getInstance(this, connection).getResults());
+            Supplier<List<ResultEntry>> loader = () -> ConnectorExecutor.execute(serverUrl, requestTimeout, request);
+            repoEntries = ArtifactIndex.lookup(this, connection)
+                    .orElseGet(() -> ResultCache.get(key, requestTimeout, loader));
+        } catch (ConnectorExecutor.RejectedException e) {
+            log.log(Level.WARNING, "The request to the repository was rejected: {0}", e.getMessage());
+            return ParameterResult.error(e.getMessage()).withDurationMillis(getMillisSince(start));
         } catch (Exception e) {
-            exceptionThrown = true;
             log.log(Level.SEVERE, "An exception occurred while trying to get a result set", e);
-            return new HashMap<>();
+            return ParameterResult.error(null).withDurationMillis(getMillisSince(start));
         }
 
-        Map<String, ResultEntry> resultEntries = new LinkedHashMap<>();
-        repoEntries.stream()
-                .map(this::checkSubmitValue)
-                .filter(this::filterRegex)
-                .sorted(this::sortResult)
-                .limit(resultsCount)
-                .forEach(entry -> resultEntries.put(entry.getKey(), entry));
-        return markPreselectedEntries(resultEntries);
+        ParameterResult result = PluginMetrics.time(
+                PluginMetrics.PROCESS_RESULTS, PluginMetrics.Tags.of(this), () -> processResult(repoEntries));
+        return result.withDurationMillis(getMillisSince(start));
+    }
+
+    private static long getMillisSince(long nanoTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanoTime);
     }
 
     /**
-     * Checks if only the label value should get send to the build pipeline and if so will change the
-     * value of the given entry to the same value as the key.
+     * Apply the display options to the entries returned by the connector. The given entries are
+     * shared with the caches and neither modified nor copied.
      */
-    private ResultEntry checkSubmitValue(ResultEntry entry) {
-        if ("label".equals(submitValue)) {
-            entry.setSubmitValue(entry.getKey());
-        } else if ("path".equals(submitValue)) {
-            entry.setSubmitValue(entry.getValue());
-        }
+    ParameterResult processResult(@Nonnull List<ResultEntry> repoEntries) {
+        // entries with the same key are displayed once, at the position of the first one with the last value
+        Map<String, ResultEntry> resultEntries = new LinkedHashMap<>();
+        repoEntries.stream()
+                .filter(this::filterRegex)
+                .collect(TopK.collector(resultsCount, this::sortResult))
+                .forEach(entry -> resultEntries.put(entry.getKey(), entry));
 
-        return entry;
+        List<ResultEntry> entries = new ArrayList<>(resultEntries.values());
+        return ParameterResult.of(entries, getPreselectedEntries(entries), submitValue);
     }
 
     /**
@@ -188,7 +303,9 @@ public class ArtifactRepoParamDefinition extends ParameterDefinition {
             return true;
         }
 
-        return entry.getKey().matches(filterRegex) || entry.getValue().matches(filterRegex);
+        Pattern pattern = getFilterPattern();
+        return pattern.matcher(entry.getKey()).matches()
+                || pattern.matcher(entry.getValue()).matches();
     }
 
     /**
@@ -207,50 +324,72 @@ public class ArtifactRepoParamDefinition extends ParameterDefinition {
      * Allows to mark some result entries to be preselected upon opening the start build view. Due to
      * the possibility to mark first or last entry to be selected it cannot be part of the stream and
      * must be done afterwards.
+     *
+     * @return The indexes of the preselected entries.
      */
-    private Map<String, ResultEntry> markPreselectedEntries(Map<String, ResultEntry> entries) {
+    private BitSet getPreselectedEntries(List<ResultEntry> entries) {
+        BitSet selected = new BitSet(entries.size());
         if (entries.isEmpty()) {
-            return entries;
+            return selected;
         }
 
         switch (selectEntry) {
             case "first":
-                entries.entrySet().stream().findFirst().ifPresent(e -> e.getValue()
-                        .setSelected(true));
+                selected.set(0);
                 break;
             case "last":
-                entries.entrySet().stream().reduce((first, second) -> second).ifPresent(e -> e.getValue()
-                        .setSelected(true));
+                selected.set(entries.size() - 1);
                 break;
             case "regex":
-                AtomicBoolean stopAction = new AtomicBoolean(false);
-                entries.entrySet().stream()
-                        .filter(not(e -> stopAction.get()))
-                        .filter(this::selectedRegex)
-                        .forEach(entry -> {
-                            if (!multiSelection) {
-                                stopAction.set(true);
-                            }
-                            entry.getValue().setSelected(true);
-                        });
+                for (int i = 0; i < entries.size(); i++) {
+                    if (selectedRegex(entries.get(i))) {
+                        selected.set(i);
+                        if (!multiSelection) {
+                            break;
+                        }
+                    }
+                }
                 break;
             default:
         }
 
-        return entries;
+        return selected;
     }
 
     /**
      * If the selection option is set to regex it will find entries matching the given regex (both key
      * and value are checked) and any entry that matches the regex will be marked to be pre-selected.
      */
-    private boolean selectedRegex(@Nonnull Map.Entry<String, ResultEntry> entry) {
+    private boolean selectedRegex(@Nonnull ResultEntry entry) {
         if (StringUtils.isBlank(selectRegex)) {
             return false;
         }
 
-        return entry.getValue().getKey().matches(selectRegex)
-                || entry.getValue().getValue().matches(selectRegex);
+        Pattern pattern = getSelectPattern();
+        return pattern.matcher(entry.getKey()).matches()
+                || pattern.matcher(entry.getValue()).matches();
+    }
+
+    /** Returns the compiled version regex used to extract the version from an artifact path. */
+    public Pattern getVersionPattern() {
+        if (versionPattern == null) {
+            versionPattern = PatternCache.compile(versionRegex);
+        }
+        return versionPattern;
+    }
+
+    private Pattern getFilterPattern() {
+        if (filterPattern == null) {
+            filterPattern = PatternCache.compile(filterRegex);
+        }
+        return filterPattern;
+    }
+
+    private Pattern getSelectPattern() {
+        if (selectPattern == null) {
+            selectPattern = PatternCache.compile(selectRegex);
+        }
+        return selectPattern;
     }
 
     // needed since reflection and Lombok getter generation do not seem to work well together
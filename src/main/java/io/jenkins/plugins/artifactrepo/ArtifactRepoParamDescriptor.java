@@ -5,24 +5,39 @@ import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardListBoxModel;
 import com.cloudbees.plugins.credentials.common.StandardUsernameCredentials;
 import hudson.model.Item;
+import hudson.model.Job;
 import hudson.model.ParameterDefinition.ParameterDescriptor;
+import hudson.model.ParametersDefinitionProperty;
 import hudson.security.ACL;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
 import io.jenkins.plugins.artifactrepo.connectors.Connector;
+import io.jenkins.plugins.artifactrepo.connectors.ConnectorDescriptor;
 import io.jenkins.plugins.artifactrepo.connectors.impl.Artifactory;
+import io.jenkins.plugins.artifactrepo.helper.ConnectorExecutor;
 import io.jenkins.plugins.artifactrepo.helper.Constants;
+import io.jenkins.plugins.artifactrepo.helper.Constants.SearchMode;
+import io.jenkins.plugins.artifactrepo.helper.PatternCache;
 import io.jenkins.plugins.artifactrepo.model.ArtifactRepoParamProxy;
+import io.jenkins.plugins.artifactrepo.model.ConnectionProfile;
+import io.jenkins.plugins.artifactrepo.model.ParameterResult;
 import io.jenkins.plugins.artifactrepo.model.ResultEntry;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.regex.PatternSyntaxException;
 import javax.annotation.Nonnull;
 import jenkins.model.Jenkins;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.kohsuke.stapler.AncestorInPath;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
 import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.verb.GET;
 import org.kohsuke.stapler.verb.POST;
 
 public class ArtifactRepoParamDescriptor extends ParameterDescriptor {
@@ -107,6 +122,29 @@ public class ArtifactRepoParamDescriptor extends ParameterDescriptor {
         if (StringUtils.isBlank(value)) {
             return FormValidation.error(Messages.formError_missingVersionRegex());
         }
+        return checkRegex(value);
+    }
+
+    public FormValidation doCheckFilterRegex(@QueryParameter String value) {
+        if (StringUtils.isBlank(value)) {
+            return FormValidation.ok();
+        }
+        return checkRegex(value);
+    }
+
+    public FormValidation doCheckSelectRegex(@QueryParameter String value) {
+        if (StringUtils.isBlank(value)) {
+            return FormValidation.ok();
+        }
+        return checkRegex(value);
+    }
+
+    private FormValidation checkRegex(@Nonnull String value) {
+        try {
+            PatternCache.compile(value.trim());
+        } catch (PatternSyntaxException e) {
+            return FormValidation.error(Messages.formError_invalidRegex(e.getDescription()));
+        }
         return FormValidation.ok();
     }
 
@@ -148,7 +186,14 @@ public class ArtifactRepoParamDescriptor extends ParameterDescriptor {
         ArtifactRepoParamDefinition dummyDefinition =
                 new ArtifactRepoParamDefinition(serverType, serverUrl, credentialsId, ignoreCertificate, proxy);
 
-        List<ResultEntry> result = Connector.getInstance(dummyDefinition).getResults();
+        ConnectionProfile connection = ConnectionProfile.of(dummyDefinition, item);
+        List<ResultEntry> result;
+        try {
+            result = ConnectorExecutor.execute(
+                    serverUrl, () -> Connector.getInstance(dummyDefinition, connection).getResults());
+        } catch (ConnectorExecutor.RejectedException e) {
+            return FormValidation.error(e.getMessage());
+        }
         if (CollectionUtils.isNotEmpty(result)) {
             return FormValidation.okWithMarkup(
                     "<span style='color:green'>" + Messages.formError_successfulConnection() + "</span>");
@@ -157,6 +202,45 @@ public class ArtifactRepoParamDescriptor extends ParameterDescriptor {
         }
     }
 
+    /**
+     * Returns the result entries of the parameter with the given name as JSON. This allows the build
+     * view to render right away and load the entries asynchronously.
+     */
+    @GET
+    public HttpResponse doFetchResults(@AncestorInPath Item item, @QueryParameter String name) {
+        if (!(item instanceof Job)) {
+            return HttpResponses.notFound();
+        }
+        item.checkPermission(Item.BUILD);
+
+        ArtifactRepoParamDefinition definition = Optional.ofNullable(
+                        ((Job<?, ?>) item).getProperty(ParametersDefinitionProperty.class))
+                .map(property -> property.getParameterDefinition(name))
+                .filter(ArtifactRepoParamDefinition.class::isInstance)
+                .map(ArtifactRepoParamDefinition.class::cast)
+                .orElse(null);
+        if (definition == null) {
+            return HttpResponses.notFound();
+        }
+
+        ParameterResult result = definition.getResult(item);
+        JSONArray entries = new JSONArray();
+        for (int i = 0; i < result.getEntries().size(); i++) {
+            JSONObject json = new JSONObject();
+            json.put("key", result.getEntries().get(i).getKey());
+            json.put("submitValue", result.getSubmitValue(i));
+            json.put("selected", result.isSelected(i));
+            entries.add(json);
+        }
+
+        JSONObject data = new JSONObject();
+        data.put("error", result.isError());
+        data.put("message", result.getErrorMessage());
+        data.put("durationMillis", result.getDurationMillis());
+        data.put("entries", entries);
+        return HttpResponses.okJSON(data);
+    }
+
     // fill select boxes (credentials)
 
     public ListBoxModel doFillCredentialsIdItems(@AncestorInPath Item item, @QueryParameter String credentialsId) {
@@ -191,8 +275,7 @@ public class ArtifactRepoParamDescriptor extends ParameterDescriptor {
     public ListBoxModel doFillServerTypeItems() {
         ListBoxModel model = new ListBoxModel();
         model.add(Messages.selection_pleaseSelect(), "");
-        model.add(Messages.selection_serverType_artifactory(), "artifactory");
-        model.add(Messages.selection_serverType_nexus(), "nexus");
+        ConnectorDescriptor.all().forEach(descriptor -> model.add(descriptor.getDisplayName(), descriptor.getId()));
         return model;
     }
 
@@ -212,6 +295,15 @@ public class ArtifactRepoParamDescriptor extends ParameterDescriptor {
         return model;
     }
 
+    public ListBoxModel doFillSearchModeItems() {
+        ListBoxModel model = new ListBoxModel();
+        model.add(Messages.selection_searchMode_search(), SearchMode.SEARCH);
+        model.add(Messages.selection_searchMode_aqlCreated(), SearchMode.AQL_CREATED);
+        model.add(Messages.selection_searchMode_aqlModified(), SearchMode.AQL_MODIFIED);
+        model.add(Messages.selection_searchMode_versionFolders(), SearchMode.VERSION_FOLDERS);
+        return model;
+    }
+
     public ListBoxModel doFillSortOrderItems() {
         ListBoxModel model = new ListBoxModel();
         model.add(Messages.selection_sort_asc(), "asc");
@@ -0,0 +1,53 @@
+package io.jenkins.plugins.artifactrepo;
+
+import hudson.Extension;
+import hudson.model.RootAction;
+import io.jenkins.plugins.artifactrepo.helper.ConnectorExecutor;
+import io.jenkins.plugins.artifactrepo.helper.PluginMetrics;
+import java.util.Map;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.verb.GET;
+
+/**
+ * Exposes the metrics collected by the plugin as JSON at <code>/artifact-repo-stats</code>. The
+ * endpoint is only available if the Metrics plugin is not installed, otherwise the metrics are
+ * reported to its registry. Administrators only.
+ */
+@Extension
+public class StatsAction implements RootAction {
+
+    public static final String URL_NAME = "artifact-repo-stats";
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return PluginMetrics.isMetricsPluginActive() ? null : URL_NAME;
+    }
+
+    @GET
+    public HttpResponse doIndex() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+
+        JSONObject metrics = new JSONObject();
+        for (Map.Entry<String, Map<String, Long>> metric : PluginMetrics.snapshot().entrySet()) {
+            metrics.put(metric.getKey(), JSONObject.fromObject(metric.getValue()));
+        }
+
+        JSONObject data = new JSONObject();
+        data.put("pendingRequests", ConnectorExecutor.getPending());
+        data.put("metrics", metrics);
+        return HttpResponses.okJSON(data);
+    }
+}
@@ -1,26 +1,32 @@
 package io.jenkins.plugins.artifactrepo.connectors;
 
 import io.jenkins.plugins.artifactrepo.ArtifactRepoParamDefinition;
-import io.jenkins.plugins.artifactrepo.connectors.impl.Artifactory;
 import io.jenkins.plugins.artifactrepo.connectors.impl.Dummy;
-import io.jenkins.plugins.artifactrepo.connectors.impl.Nexus;
+import io.jenkins.plugins.artifactrepo.model.ConnectionProfile;
 import io.jenkins.plugins.artifactrepo.model.ResultEntry;
 import java.util.List;
 import javax.annotation.Nonnull;
 
-/** A connector interface for each artifact repository connector to implement. */
+/**
+ * A connector interface for each artifact repository connector to implement. Connectors are
+ * registered by a {@link ConnectorDescriptor}.
+ */
 public interface Connector {
 
     /** Return a connector based on the server type configured in the given build definition. */
     static Connector getInstance(@Nonnull ArtifactRepoParamDefinition definition) {
-        switch (definition.getServerType()) {
-            case Nexus.ID:
-                return new Nexus(definition);
-            case Artifactory.ID:
-                return new Artifactory(definition);
-            default:
-                return new Dummy();
-        }
+        return getInstance(definition, ConnectionProfile.of(definition));
+    }
+
+    /**
+     * Return a connector based on the server type configured in the given build definition that
+     * connects with the given connection profile, e.g. to resolve credentials in a specific context.
+     */
+    static Connector getInstance(
+            @Nonnull ArtifactRepoParamDefinition definition, @Nonnull ConnectionProfile connection) {
+        return ConnectorDescriptor.byId(definition.getServerType())
+                .map(descriptor -> descriptor.create(definition, connection))
+                .orElseGet(Dummy::new);
     }
 
     /**
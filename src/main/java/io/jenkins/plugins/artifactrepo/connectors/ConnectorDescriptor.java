@@ -0,0 +1,75 @@
+package io.jenkins.plugins.artifactrepo.connectors;
+
+import hudson.ExtensionList;
+import hudson.ExtensionPoint;
+import io.jenkins.plugins.artifactrepo.ArtifactRepoParamDefinition;
+import io.jenkins.plugins.artifactrepo.model.ConnectionProfile;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Describes a type of repository server the plugin is able to connect to. Other plugins may add
+ * support for further servers by implementing this extension point along with a {@link Connector}.
+ *
+ * <p>Besides creating connectors a descriptor declares the {@link Capability capabilities} of its
+ * connector. The build definition uses them to decide which part of the work the server does and
+ * which part is done within Jenkins.
+ */
+public abstract class ConnectorDescriptor implements ExtensionPoint {
+
+    /** Work a connector is able to take over from the build definition. */
+    public enum Capability {
+        /**
+         * The server returns the first entries in its own order and the connector stops after the
+         * limit of the definition, see {@link ArtifactRepoParamDefinition#getQueryLimit()} and {@link
+         * ArtifactRepoParamDefinition#getVersionLimit()}. The display sort is applied to these
+         * entries afterwards, so the order of the server decides which entries are displayed, e.g.
+         * the newest ones by date for Artifactory AQL searches.
+         */
+        SERVER_LIMIT,
+        /** The connector is an {@link IndexedConnector} able to only list the changes since a cursor. */
+        INCREMENTAL_INDEX
+    }
+
+    /** Returns the server type stored in the build definitions, e.g. <code>nexus</code>. */
+    @Nonnull
+    public abstract String getId();
+
+    /** Returns the name of the server type displayed in the configuration. */
+    @Nonnull
+    public abstract String getDisplayName();
+
+    /** Create a connector for the given build definition that connects with the given connection profile. */
+    @Nonnull
+    public abstract Connector create(
+            @Nonnull ArtifactRepoParamDefinition definition, @Nonnull ConnectionProfile connection);
+
+    /**
+     * Returns the capabilities of the connector for the given build definition. They may depend on
+     * the options of the definition, e.g. the parameter type. None by default.
+     */
+    @Nonnull
+    public Set<Capability> getCapabilities(@Nonnull ArtifactRepoParamDefinition definition) {
+        return EnumSet.noneOf(Capability.class);
+    }
+
+    /** Returns whether the connector has the given capability for the given build definition. */
+    public final boolean supports(@Nonnull ArtifactRepoParamDefinition definition, @Nonnull Capability capability) {
+        return getCapabilities(definition).contains(capability);
+    }
+
+    /** Returns all registered descriptors. */
+    public static ExtensionList<ConnectorDescriptor> all() {
+        return ExtensionList.lookup(ConnectorDescriptor.class);
+    }
+
+    /** Returns the descriptor of the given server type. */
+    public static Optional<ConnectorDescriptor> byId(@CheckForNull String id) {
+        return all().stream()
+                .filter(descriptor -> descriptor.getId().equals(id))
+                .findFirst();
+    }
+}
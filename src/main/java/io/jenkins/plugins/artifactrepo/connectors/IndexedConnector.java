@@ -0,0 +1,22 @@
+package io.jenkins.plugins.artifactrepo.connectors;
+
+import io.jenkins.plugins.artifactrepo.model.IndexUpdate;
+import javax.annotation.CheckForNull;
+
+/**
+ * A connector that is able to list all artifacts of the configured repository to be held in the
+ * {@link io.jenkins.plugins.artifactrepo.helper.ArtifactIndex}.
+ */
+public interface IndexedConnector {
+
+    /**
+     * Get the artifacts of the repository configured in the build parameters.
+     *
+     * @param cursor The cursor of the previous update to only get the changes since then or null to
+     *     get all artifacts. Connectors that do not support incremental updates always return a full
+     *     update.
+     * @param limit The max. number of artifacts the index takes. Connectors may stop listing
+     *     further artifacts once more than this number has been found, the update is discarded then.
+     */
+    IndexUpdate fetchIndex(@CheckForNull String cursor, int limit);
+}
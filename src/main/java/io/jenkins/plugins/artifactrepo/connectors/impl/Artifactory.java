@@ -1,38 +1,73 @@
 package io.jenkins.plugins.artifactrepo.connectors.impl;
 
+import hudson.Extension;
 import io.jenkins.plugins.artifactrepo.ArtifactRepoParamDefinition;
 import io.jenkins.plugins.artifactrepo.Messages;
 import io.jenkins.plugins.artifactrepo.connectors.Connector;
+import io.jenkins.plugins.artifactrepo.connectors.ConnectorDescriptor;
+import io.jenkins.plugins.artifactrepo.connectors.ConnectorDescriptor.Capability;
+import io.jenkins.plugins.artifactrepo.connectors.IndexedConnector;
 import io.jenkins.plugins.artifactrepo.helper.Constants.ParameterType;
+import io.jenkins.plugins.artifactrepo.helper.Constants.SearchMode;
+import io.jenkins.plugins.artifactrepo.helper.JsonStreamReader;
 import io.jenkins.plugins.artifactrepo.helper.PluginHelper;
-import io.jenkins.plugins.artifactrepo.model.HttpResponse;
+import io.jenkins.plugins.artifactrepo.helper.PluginMetrics;
+import io.jenkins.plugins.artifactrepo.model.ConnectionProfile;
+import io.jenkins.plugins.artifactrepo.model.IndexEntry;
+import io.jenkins.plugins.artifactrepo.model.IndexUpdate;
+import io.jenkins.plugins.artifactrepo.model.QueryKey;
 import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import jenkins.util.SystemProperties;
+import lombok.Value;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
-import org.apache.http.HttpStatus;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 /** A connector that provides access to the supported REST endpoints of JFrog Artifactory. */
-public class Artifactory implements Connector {
+public class Artifactory implements Connector, IndexedConnector {
 
     public static final String ID = "artifactory";
+    // number of artifacts looked at to locate the version folders of an artifact
+    private static final int VERSION_FOLDER_SAMPLES = 20;
+    private static final int MAX_VERSION_FOLDERS = 500;
+    private static final int INDEX_PAGE_SIZE =
+            Math.max(1, SystemProperties.getInteger(Artifactory.class.getName() + ".indexPageSize", 10000));
+    private static final Map<QueryKey, VersionFolder> VERSION_FOLDERS =
+            Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<QueryKey, VersionFolder> eldest) {
+                    return size() > MAX_VERSION_FOLDERS;
+                }
+            });
     private final ArtifactRepoParamDefinition definition;
-    private final HttpClientBuilder httpBuilder;
+    private final ConnectionProfile connection;
+    private final CloseableHttpClient httpClient;
 
     public Artifactory(@Nonnull ArtifactRepoParamDefinition definition) {
+        this(definition, ConnectionProfile.of(definition));
+    }
+
+    public Artifactory(@Nonnull ArtifactRepoParamDefinition definition, @Nonnull ConnectionProfile connection) {
         this.definition = definition;
-        httpBuilder = PluginHelper.getBuilder(
-                definition.getCredentialsId(), definition.getProxy(), definition.isIgnoreCertificate());
+        this.connection = connection;
+        httpClient = PluginHelper.getClient(connection);
     }
 
     @Override
@@ -51,29 +86,227 @@ public class Artifactory implements Connector {
     }
 
     private List<ResultEntry> getArtifactResult() {
+        if (SearchMode.isAql(definition.getSearchMode())) {
+            return getAqlResult();
+        }
+        return getSearchResult();
+    }
+
+    private List<ResultEntry> getSearchResult() {
+        String url = definition.getServerUrl() + "/api/search/artifact?name=" + definition.getArtifactName();
+        if (StringUtils.isNotBlank(definition.getRepoName())) {
+            url = url + "&repos=" + definition.getRepoName();
+        }
+
+        return PluginHelper.get(url, httpClient, createContext(), Artifactory::parseArtifactsPayload);
+    }
+
+    /**
+     * Parse the search result. The results are read one after the other so only a single result
+     * object is materialized at a time.
+     */
+    static List<ResultEntry> parseArtifactsPayload(@Nonnull InputStream payload) {
         List<ResultEntry> result = new ArrayList<>();
 
-        HttpResponse response = getArtifactsResponse();
-        Validate.isTrue(response.getRc() == HttpStatus.SC_OK, Messages.log_failedRequest(response.getRc()));
+        JsonStreamReader reader = new JsonStreamReader(payload);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!"results".equals(reader.nextName())) {
+                reader.skipValue();
+                continue;
+            }
 
-        JSONObject root = new JSONObject(response.getPayload());
-        JSONArray array = root.getJSONArray("results");
-        for (int i = 0; i < array.length(); i++) {
-            String value = array.getJSONObject(i).getString("uri");
-            String key = StringUtils.substringAfterLast(value, "/");
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String value = reader.nextObject().getString("uri");
+                String key = StringUtils.substringAfterLast(value, "/");
 
-            if (StringUtils.isNoneBlank(value, key)) {
-                result.add(new ResultEntry(key, StringUtils.remove(value, "api/storage/")));
+                if (StringUtils.isNoneBlank(value, key)) {
+                    result.add(new ResultEntry(key, StringUtils.remove(value, "api/storage/")));
+                }
             }
         }
 
         return result;
     }
 
+    /**
+     * Search for artifacts via AQL. Repository and name pattern are evaluated by the server, only the
+     * fields required to build the path are returned and the results are ordered by date. If possible
+     * the server also limits the number of results.
+     */
+    private List<ResultEntry> getAqlResult() {
+        String baseUrl = StringUtils.removeEnd(definition.getServerUrl(), "/");
+        return PluginHelper.post(
+                baseUrl + "/api/search/aql",
+                getAqlQuery(),
+                httpClient,
+                createContext(),
+                payload -> parseAqlPayload(payload, baseUrl));
+    }
+
+    private String getAqlQuery() {
+        JSONObject criteria = getAqlCriteria();
+
+        String sortField = SearchMode.AQL_MODIFIED.equals(definition.getSearchMode()) ? "modified" : "created";
+        String query = "items.find(" + criteria + ")"
+                + ".include(\"repo\",\"path\",\"name\")"
+                + ".sort({\"$desc\":[\"" + sortField + "\"]})";
+
+        int limit = definition.getQueryLimit();
+        return limit > 0 ? query + ".limit(" + limit + ")" : query;
+    }
+
+    /** Returns the criteria matching the artifacts of the definition. */
+    private JSONObject getAqlCriteria() {
+        JSONObject criteria =
+                new JSONObject().put("name", new JSONObject().put("$match", definition.getArtifactName()));
+        return addRepoCriteria(criteria);
+    }
+
+    /**
+     * Adds the repositories of the definition to the given criteria. Like the search API accepts a
+     * comma separated list of repositories, several repositories are combined with <code>$or</code>
+     * as an AQL criterion only matches a single repository.
+     */
+    private JSONObject addRepoCriteria(@Nonnull JSONObject criteria) {
+        JSONArray repos = new JSONArray();
+        for (String repo : StringUtils.split(StringUtils.defaultString(definition.getRepoName()), ',')) {
+            if (StringUtils.isNotBlank(repo)) {
+                repos.put(new JSONObject().put("repo", repo.trim()));
+            }
+        }
+        if (repos.length() == 1) {
+            criteria.put("repo", repos.getJSONObject(0).getString("repo"));
+        } else if (repos.length() > 1) {
+            criteria.put("$or", repos);
+        }
+        return criteria;
+    }
+
+    /** Parse the items found by AQL, their URLs are built from the given base URL of the server. */
+    static List<ResultEntry> parseAqlPayload(@Nonnull InputStream payload, @Nonnull String baseUrl) {
+        List<ResultEntry> result = new ArrayList<>();
+
+        JsonStreamReader reader = new JsonStreamReader(payload);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!"results".equals(reader.nextName())) {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                JSONObject item = reader.nextObject();
+                String key = item.getString("name");
+
+                if (StringUtils.isNotBlank(key)) {
+                    result.add(new ResultEntry(key, getItemUrl(baseUrl, item)));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Lists the artifacts of the configured repository via AQL. If a cursor is given only the
+     * artifacts modified since then are requested. The cursor is the last modification date returned
+     * by the server, so the clocks of Jenkins and Artifactory do not need to be in sync. Deleted
+     * artifacts are only noticed by a full update.
+     *
+     * <p>The artifacts are requested page by page. Artifacts modified in the meantime move to the
+     * end of the list, which may shift another artifact to an earlier page. Such an artifact is
+     * picked up by the next full update.
+     */
+    @Override
+    public IndexUpdate fetchIndex(String cursor, int limit) {
+        Validate.notBlank(definition.getRepoName(), "A repository is required to index its artifacts");
+
+        JSONObject criteria = addRepoCriteria(new JSONObject());
+        if (StringUtils.isNotBlank(cursor)) {
+            // artifacts modified at the very same time as the cursor might not have been returned yet
+            criteria.put("modified", new JSONObject().put("$gte", cursor));
+        }
+        String query = "items.find(" + criteria + ")"
+                + ".include(\"repo\",\"path\",\"name\",\"modified\")"
+                + ".sort({\"$asc\":[\"modified\"]})";
+
+        List<IndexEntry> entries = new ArrayList<>();
+        String nextCursor = cursor;
+        String baseUrl = StringUtils.removeEnd(definition.getServerUrl(), "/");
+        PluginMetrics.Tags tags = PluginMetrics.Tags.of(definition);
+        for (int offset = 0; entries.size() <= limit; offset += INDEX_PAGE_SIZE) {
+            IndexPage page = PluginHelper.post(
+                    baseUrl + "/api/search/aql",
+                    query + ".offset(" + offset + ").limit(" + INDEX_PAGE_SIZE + ")",
+                    httpClient,
+                    createContext(),
+                    payload -> parseIndexPayload(payload, baseUrl));
+            PluginMetrics.count(PluginMetrics.PAGES, tags);
+
+            entries.addAll(page.getEntries());
+            nextCursor = Optional.ofNullable(page.getCursor()).orElse(nextCursor);
+            if (page.getItems() < INDEX_PAGE_SIZE) {
+                break;
+            }
+        }
+
+        return new IndexUpdate(entries, StringUtils.isBlank(cursor), nextCursor);
+    }
+
+    /** Parse a page of the index query, the modification date of the newest item is the next cursor. */
+    static IndexPage parseIndexPayload(@Nonnull InputStream payload, @Nonnull String baseUrl) {
+        List<IndexEntry> entries = new ArrayList<>();
+        int items = 0;
+        String cursor = null;
+
+        JsonStreamReader reader = new JsonStreamReader(payload);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!"results".equals(reader.nextName())) {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                JSONObject item = reader.nextObject();
+                items++;
+                String name = item.getString("name");
+                if (StringUtils.isNotBlank(name)) {
+                    entries.add(new IndexEntry(name, name, getItemUrl(baseUrl, item)));
+                }
+                // results are sorted by modification date, so the last one is the newest
+                cursor = item.optString("modified", cursor);
+            }
+        }
+
+        return new IndexPage(entries, items, cursor);
+    }
+
+    /** Creates the context of a request, it carries the tags to record the metrics of the request with. */
+    private HttpClientContext createContext() {
+        HttpClientContext context = HttpClientContext.create();
+        context.setAttribute(PluginMetrics.TAGS_ATTRIBUTE, PluginMetrics.Tags.of(definition));
+        return context;
+    }
+
+    private static String getItemUrl(@Nonnull String baseUrl, @Nonnull JSONObject item) {
+        String path = item.getString("path");
+        String folder = ".".equals(path) ? "" : path + "/";
+        return baseUrl + "/" + item.getString("repo") + "/" + folder + item.getString("name");
+    }
+
     private List<ResultEntry> getVersionResult() {
+        if (SearchMode.VERSION_FOLDERS.equals(definition.getSearchMode())) {
+            return getVersionFolderResult();
+        }
+
         List<ResultEntry> result = new ArrayList<>();
 
-        Pattern versionPattern = Pattern.compile(definition.getVersionRegex());
+        Pattern versionPattern = definition.getVersionPattern();
         for (ResultEntry entry : getArtifactResult()) {
             Optional<String> version = extractVersion(entry.getValue(), versionPattern);
             version.ifPresent(v -> result.add(new ResultEntry(v, entry.getValue())));
@@ -82,16 +315,108 @@ public class Artifactory implements Connector {
         return result;
     }
 
-    private HttpResponse getArtifactsResponse() {
-        String url = definition.getServerUrl() + "/api/search/artifact?name=" + definition.getArtifactName();
-        if (StringUtils.isNotBlank(definition.getRepoName())) {
-            url = url + "&repos=" + definition.getRepoName();
+    /**
+     * List the version folders of the artifact via the storage API instead of searching all its
+     * files. The folder containing the version folders is located once by looking at a few artifacts
+     * matching the name and is kept per artifact. Afterwards a single conditional request for the
+     * folder listing is sufficient.
+     */
+    private List<ResultEntry> getVersionFolderResult() {
+        QueryKey key = QueryKey.of(definition, connection);
+        VersionFolder folder = VERSION_FOLDERS.get(key);
+        if (folder == null) {
+            folder = findVersionFolder();
+            VERSION_FOLDERS.put(key, folder);
+        }
+
+        VersionFolder versionFolder = folder;
+        try {
+            return PluginHelper.getConditional(
+                    versionFolder.getStorageUrl(),
+                    httpClient,
+                    createContext(),
+                    key,
+                    payload -> parseFolderPayload(payload, versionFolder, definition.getVersionPattern()));
+        } catch (RuntimeException e) {
+            // the folder may have been moved or deleted, locate it again with the next request
+            VERSION_FOLDERS.remove(key);
+            throw e;
+        }
+    }
+
+    /**
+     * Locate the folder holding the version folders of the artifact. The version regex is applied to
+     * the paths of some artifacts matching the name and the part in front of the captured version is
+     * the folder we are looking for. This requires the version to be a folder of its own.
+     */
+    private VersionFolder findVersionFolder() {
+        String query = "items.find(" + getAqlCriteria() + ")"
+                + ".include(\"repo\",\"path\",\"name\")"
+                + ".limit(" + VERSION_FOLDER_SAMPLES + ")";
+        String baseUrl = StringUtils.removeEnd(definition.getServerUrl(), "/");
+        List<ResultEntry> samples = PluginHelper.post(
+                baseUrl + "/api/search/aql",
+                query,
+                httpClient,
+                createContext(),
+                payload -> parseAqlPayload(payload, baseUrl));
+
+        Pattern versionPattern = definition.getVersionPattern();
+        for (ResultEntry sample : samples) {
+            String path = sample.getValue();
+            Matcher matcher = versionPattern.matcher(path);
+            if (!matcher.matches() || matcher.groupCount() < 1 || matcher.start(1) < 1) {
+                continue;
+            }
+
+            int start = matcher.start(1);
+            int end = matcher.end(1);
+            boolean isFolder = path.charAt(start - 1) == '/' && end < path.length() && path.charAt(end) == '/';
+            if (isFolder && !StringUtils.contains(matcher.group(1), '/')) {
+                String parentUrl = path.substring(0, start);
+                String storageUrl = baseUrl + "/api/storage/" + StringUtils.removeStart(parentUrl, baseUrl + "/");
+                return new VersionFolder(StringUtils.removeEnd(storageUrl, "/"), parentUrl, path.substring(end));
+            }
         }
 
-        return PluginHelper.get(url, httpBuilder);
+        throw new IllegalArgumentException("No artifact path with a version folder matches the version regex");
     }
 
-    private Optional<String> extractVersion(@Nonnull String path, @Nonnull Pattern pattern) {
+    /**
+     * Parse the children of the folder holding the version folders. A child folder is a version if
+     * the version regex extracts its name from the path of the artifact within it.
+     */
+    static List<ResultEntry> parseFolderPayload(
+            @Nonnull InputStream payload, @Nonnull VersionFolder folder, @Nonnull Pattern versionPattern) {
+        List<ResultEntry> result = new ArrayList<>();
+
+        JsonStreamReader reader = new JsonStreamReader(payload);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!"children".equals(reader.nextName())) {
+                reader.skipValue();
+                continue;
+            }
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                JSONObject child = reader.nextObject();
+                String name = StringUtils.removeStart(child.getString("uri"), "/");
+                if (!child.optBoolean("folder") || StringUtils.isBlank(name)) {
+                    continue;
+                }
+
+                String path = folder.getParentUrl() + name + folder.getSuffix();
+                extractVersion(path, versionPattern)
+                        .filter(name::equals)
+                        .ifPresent(version -> result.add(new ResultEntry(version, folder.getParentUrl() + name)));
+            }
+        }
+
+        return result;
+    }
+
+    private static Optional<String> extractVersion(@Nonnull String path, @Nonnull Pattern pattern) {
         Matcher versionMatcher = pattern.matcher(path);
         if (versionMatcher.matches() && versionMatcher.groupCount() >= 1) {
             return Optional.of(versionMatcher.group(1));
@@ -99,15 +424,23 @@ public class Artifactory implements Connector {
         return Optional.empty();
     }
 
+    /** The repository list rarely changes, hence it is only downloaded again if it was modified. */
     private List<ResultEntry> getRepositoryResult() {
-        List<ResultEntry> result = new ArrayList<>();
+        return PluginHelper.getConditional(
+                definition.getServerUrl() + "/api/repositories",
+                httpClient,
+                createContext(),
+                QueryKey.of(definition, connection),
+                this::parseRepositoriesPayload);
+    }
 
-        HttpResponse response = getRepositoriesResponse();
-        Validate.isTrue(response.getRc() == HttpStatus.SC_OK, Messages.log_failedRequest(response.getRc()));
+    private List<ResultEntry> parseRepositoriesPayload(@Nonnull InputStream payload) {
+        List<ResultEntry> result = new ArrayList<>();
 
-        JSONArray root = new JSONArray(response.getPayload());
-        for (int i = 0; i < root.length(); i++) {
-            JSONObject repo = root.getJSONObject(i);
+        JsonStreamReader reader = new JsonStreamReader(payload);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            JSONObject repo = reader.nextObject();
 
             if (!isValidRepoType(repo.getString("type")) || !isValidFormatType(repo.getString("packageType"))) {
                 continue;
@@ -123,10 +456,6 @@ public class Artifactory implements Connector {
         return result;
     }
 
-    private HttpResponse getRepositoriesResponse() {
-        return PluginHelper.get(definition.getServerUrl() + "/api/repositories", httpBuilder);
-    }
-
     private boolean isValidRepoType(@Nonnull String value) {
         if (definition.getRepoType().isLocal() && "LOCAL".equals(value)) {
             return true;
@@ -149,4 +478,56 @@ public class Artifactory implements Connector {
             return definition.getFormatType().isOther()
                     && Stream.of("Maven", "Npm", "Bower", "Pypi", "Docker").noneMatch(s -> s.equals(value));
     }
+
+    /**
+     * The folder holding the version folders of an artifact.
+     *
+     * <p>The suffix is the remaining path of the artifact the folder was located with, i.e. the part
+     * after its version. It is used to check whether a child folder holds a version.
+     */
+    @Value
+    static class VersionFolder {
+        String storageUrl;
+        String parentUrl;
+        String suffix;
+    }
+
+    /** A page of the index query. The number of items tells whether further pages exist. */
+    @Value
+    static class IndexPage {
+        List<IndexEntry> entries;
+        int items;
+        String cursor;
+    }
+
+    /** Registers the Artifactory connector. */
+    @Extension(ordinal = 1)
+    public static final class DescriptorImpl extends ConnectorDescriptor {
+
+        @Override
+        public String getId() {
+            return ID;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return Messages.selection_serverType_artifactory();
+        }
+
+        @Override
+        public Connector create(
+                @Nonnull ArtifactRepoParamDefinition definition, @Nonnull ConnectionProfile connection) {
+            return new Artifactory(definition, connection);
+        }
+
+        /** AQL searches are sorted and limited by the server, the index is updated via AQL as well. */
+        @Override
+        public Set<Capability> getCapabilities(@Nonnull ArtifactRepoParamDefinition definition) {
+            Set<Capability> capabilities = EnumSet.of(Capability.INCREMENTAL_INDEX);
+            if (SearchMode.isAql(definition.getSearchMode()) && ParameterType.PATH.equals(definition.getParamType())) {
+                capabilities.add(Capability.SERVER_LIMIT);
+            }
+            return capabilities;
+        }
+    }
 }
@@ -0,0 +1,368 @@
+package io.jenkins.plugins.artifactrepo.connectors.impl;
+
+import hudson.Extension;
+import io.jenkins.plugins.artifactrepo.ArtifactRepoParamDefinition;
+import io.jenkins.plugins.artifactrepo.Messages;
+import io.jenkins.plugins.artifactrepo.connectors.Connector;
+import io.jenkins.plugins.artifactrepo.connectors.ConnectorDescriptor;
+import io.jenkins.plugins.artifactrepo.helper.Constants.ParameterType;
+import io.jenkins.plugins.artifactrepo.helper.JsonStreamReader;
+import io.jenkins.plugins.artifactrepo.helper.PluginHelper;
+import io.jenkins.plugins.artifactrepo.helper.PluginMetrics;
+import io.jenkins.plugins.artifactrepo.helper.ResponseParser;
+import io.jenkins.plugins.artifactrepo.model.ConnectionProfile;
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.util.SystemProperties;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.json.JSONArray;
+
+/**
+ * A connector for registries implementing the Docker Registry HTTP API V2 (OCI distribution), e.g.
+ * Docker Hub, Harbor or the GitLab container registry. The artifact name is the name of an image
+ * and its tags are listed page by page.
+ *
+ * <p>Registries that require a bearer token answer with a challenge naming their token service. The
+ * token is requested with the credentials of the parameter and reused by all requests of the same
+ * scope until it expires. Basic authentication is handled by the HTTP client itself.
+ */
+public class DockerRegistry implements Connector {
+
+    public static final String ID = "docker";
+    private static final String PREFIX = DockerRegistry.class.getName();
+    private static final int PAGE_SIZE = SystemProperties.getInteger(PREFIX + ".pageSize", 1000);
+    // tokens are renewed a bit before they expire so they do not expire on their way to the registry
+    private static final long TOKEN_EXPIRY_MARGIN = TimeUnit.SECONDS.toMillis(10);
+    // the token specification defines 60 seconds if the token service does not state the lifetime
+    private static final long DEFAULT_TOKEN_LIFETIME = 60;
+    private static final Pattern NEXT_LINK = Pattern.compile("<([^>]+)>\\s*;\\s*rel=\"?next\"?");
+    private static final Pattern CHALLENGE_PARAM = Pattern.compile("(\\w+)=\"([^\"]*)\"");
+    private static final Map<TokenKey, Token> TOKENS = new ConcurrentHashMap<>();
+
+    private final ArtifactRepoParamDefinition definition;
+    private final ConnectionProfile connection;
+    private final CloseableHttpClient httpClient;
+
+    public DockerRegistry(@Nonnull ArtifactRepoParamDefinition definition) {
+        this(definition, ConnectionProfile.of(definition));
+    }
+
+    public DockerRegistry(@Nonnull ArtifactRepoParamDefinition definition, @Nonnull ConnectionProfile connection) {
+        this.definition = definition;
+        this.connection = connection;
+        httpClient = PluginHelper.getClient(connection);
+    }
+
+    @Override
+    public List<ResultEntry> getResults() {
+        switch (definition.getParamType()) {
+            case ParameterType.PATH:
+                return getTagResult();
+            case ParameterType.VERSION:
+                return getVersionResult();
+            case ParameterType.REPOSITORY:
+                return getRepositoryResult();
+            case ParameterType.TEST:
+                return getPingResult();
+            default:
+                throw new IllegalArgumentException(Messages.log_invalidParameter(definition.getParamType()));
+        }
+    }
+
+    /** Lists the tags of the image as references of the form <code>registry/image:tag</code>. */
+    private List<ResultEntry> getTagResult() {
+        String image = StringUtils.strip(StringUtils.trimToEmpty(definition.getArtifactName()), "/");
+        Validate.notBlank(image, "The name of the image must not be blank");
+
+        String reference = getRegistryName() + "/" + image + ":";
+        return collectPages(
+                "/v2/" + image + "/tags/list",
+                "repository:" + image + ":pull",
+                "tags",
+                tag -> new ResultEntry(tag, reference + tag));
+    }
+
+    private List<ResultEntry> getVersionResult() {
+        List<ResultEntry> result = new ArrayList<>();
+
+        Pattern versionPattern = definition.getVersionPattern();
+        for (ResultEntry entry : getTagResult()) {
+            Matcher versionMatcher = versionPattern.matcher(entry.getValue());
+            if (versionMatcher.matches() && versionMatcher.groupCount() >= 1) {
+                result.add(new ResultEntry(versionMatcher.group(1), entry.getValue()));
+            }
+        }
+
+        return result;
+    }
+
+    /** Lists the images of the registry. Many public registries do not offer the catalog endpoint. */
+    private List<ResultEntry> getRepositoryResult() {
+        String registry = getRegistryName();
+        return collectPages(
+                "/v2/_catalog",
+                "registry:catalog:*",
+                "repositories",
+                name -> new ResultEntry(name, registry + "/" + name));
+    }
+
+    /**
+     * Check that the registry implements the API and accepts the credentials. The catalog is not used
+     * as many registries do not offer it.
+     */
+    private List<ResultEntry> getPingResult() {
+        String url = StringUtils.removeEnd(definition.getServerUrl(), "/") + "/v2/";
+        return get(url, "", (response, payload) -> List.of(new ResultEntry(getRegistryName(), url)));
+    }
+
+    /**
+     * Request a paginated list page by page. Each page links to the next one in its <code>Link</code>
+     * header, the last page does not.
+     *
+     * @param path The path of the list endpoint.
+     * @param scope The scope of the token required to access the endpoint, blank if none is required.
+     * @param field The field of the response holding the list.
+     * @param mapper Turns a list element into a result entry.
+     */
+    private List<ResultEntry> collectPages(
+            @Nonnull String path,
+            @Nonnull String scope,
+            @Nonnull String field,
+            @Nonnull Function<String, ResultEntry> mapper) {
+        List<ResultEntry> result = new ArrayList<>();
+        PluginMetrics.Tags tags = PluginMetrics.Tags.of(definition);
+
+        String baseUrl = StringUtils.removeEnd(definition.getServerUrl(), "/");
+        String url = baseUrl + path + "?n=" + PAGE_SIZE;
+        while (url != null) {
+            Page page = get(url, scope, (response, payload) -> parsePage(response, payload, field));
+            page.getEntries().stream().map(mapper).forEach(result::add);
+            PluginMetrics.count(PluginMetrics.PAGES, tags);
+            url = page.getNext() == null ? null : resolve(baseUrl, page.getNext());
+        }
+
+        return result;
+    }
+
+    /** Parse a list page, only the array of the given field is read. */
+    static Page parsePage(@Nonnull HttpResponse response, @Nonnull InputStream payload, @Nonnull String field) {
+        List<String> entries = new ArrayList<>();
+
+        JsonStreamReader reader = new JsonStreamReader(payload);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!field.equals(reader.nextName())) {
+                reader.skipValue();
+                continue;
+            }
+
+            // the list may be null if the image does not have any tags
+            Object values = reader.nextValue();
+            if (values instanceof JSONArray) {
+                JSONArray array = (JSONArray) values;
+                for (int i = 0; i < array.length(); i++) {
+                    Optional.ofNullable(array.optString(i, null))
+                            .filter(StringUtils::isNotBlank)
+                            .ifPresent(entries::add);
+                }
+            }
+        }
+
+        return new Page(entries, getNextLink(response));
+    }
+
+    @CheckForNull
+    private static String getNextLink(@Nonnull HttpResponse response) {
+        for (Header link : response.getHeaders("Link")) {
+            Matcher matcher = NEXT_LINK.matcher(link.getValue());
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+
+    /** Links are usually relative to the registry, e.g. <code>/v2/_catalog?last=x&amp;n=100</code>. */
+    private static String resolve(@Nonnull String baseUrl, @Nonnull String link) {
+        return URI.create(baseUrl + "/").resolve(link).toString();
+    }
+
+    /**
+     * Send a GET request authorized by the cached token of the given scope. If the registry asks for
+     * a new token it is requested from the token service named in the challenge and the request is
+     * sent once more.
+     */
+    private <T> T get(@Nonnull String url, @Nonnull String scope, @Nonnull ResponseParser<T> parser) {
+        TokenKey key = new TokenKey(connection, scope);
+        for (int attempt = 1; ; attempt++) {
+            HttpGet get = new HttpGet(url);
+            Token token = TOKENS.get(key);
+            if (token != null && token.isValid()) {
+                get.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token.getValue());
+            }
+
+            boolean retry = attempt == 1;
+            Reply<T> reply = PluginHelper.exchange(get, httpClient, createContext(), (response, payload) -> {
+                int rc = response.getStatusLine().getStatusCode();
+                Header challenge = response.getFirstHeader(HttpHeaders.WWW_AUTHENTICATE);
+                if (rc == HttpStatus.SC_UNAUTHORIZED && retry && isBearerChallenge(challenge)) {
+                    return new Reply<>(null, challenge.getValue());
+                }
+                Validate.isTrue(rc == HttpStatus.SC_OK, Messages.log_failedRequest(rc));
+                return new Reply<>(parser.parse(response, payload), null);
+            });
+
+            if (reply.getChallenge() == null) {
+                return reply.getResult();
+            }
+            TOKENS.values().removeIf(cached -> !cached.isValid());
+            TOKENS.put(key, requestToken(reply.getChallenge(), scope));
+        }
+    }
+
+    private static boolean isBearerChallenge(@CheckForNull Header challenge) {
+        return challenge != null && StringUtils.startsWithIgnoreCase(challenge.getValue().trim(), "Bearer ");
+    }
+
+    /**
+     * Request a token from the token service named in the challenge, e.g. <code>Bearer
+     * realm="https://auth.docker.io/token",service="registry.docker.io"</code>. The token service
+     * authenticates the credentials of the parameter via basic authentication, without credentials
+     * an anonymous token is requested.
+     */
+    private Token requestToken(@Nonnull String challenge, @Nonnull String scope) {
+        Map<String, String> params = new HashMap<>();
+        Matcher matcher = CHALLENGE_PARAM.matcher(challenge);
+        while (matcher.find()) {
+            params.put(matcher.group(1), matcher.group(2));
+        }
+        Validate.notBlank(params.get("realm"), "The registry did not name a token service");
+
+        String url;
+        try {
+            URIBuilder builder = new URIBuilder(params.get("realm"));
+            Optional.ofNullable(params.get("service")).ifPresent(service -> builder.addParameter("service", service));
+            String tokenScope = params.getOrDefault("scope", scope);
+            if (StringUtils.isNotBlank(tokenScope)) {
+                builder.addParameter("scope", tokenScope);
+            }
+            url = builder.build().toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid token service: " + params.get("realm"), e);
+        }
+
+        return PluginHelper.get(url, httpClient, createContext(), DockerRegistry::parseTokenPayload);
+    }
+
+    static Token parseTokenPayload(@Nonnull InputStream payload) {
+        String token = null;
+        long lifetime = DEFAULT_TOKEN_LIFETIME;
+
+        JsonStreamReader reader = new JsonStreamReader(payload);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            Object value = reader.nextValue();
+            // "access_token" is the OAuth 2 compatible name of the same token
+            if ("token".equals(name) && value instanceof String) {
+                token = (String) value;
+            } else if ("access_token".equals(name) && value instanceof String && token == null) {
+                token = (String) value;
+            } else if ("expires_in".equals(name) && value instanceof Number) {
+                lifetime = Math.max(DEFAULT_TOKEN_LIFETIME, ((Number) value).longValue());
+            }
+        }
+        Validate.isTrue(StringUtils.isNotBlank(token), "The token service did not return a token");
+
+        long expiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(lifetime) - TOKEN_EXPIRY_MARGIN;
+        return new Token(token, expiresAt);
+    }
+
+    /** Returns the host of the registry as used in image references. */
+    private String getRegistryName() {
+        return PluginHelper.getServerName(definition.getServerUrl());
+    }
+
+    /** Creates the context of a request, it carries the tags to record the metrics of the request with. */
+    private HttpClientContext createContext() {
+        HttpClientContext context = HttpClientContext.create();
+        context.setAttribute(PluginMetrics.TAGS_ATTRIBUTE, PluginMetrics.Tags.of(definition));
+        return context;
+    }
+
+    /** The entries of a single list page along with the link to the next page. */
+    @Value
+    static class Page {
+        List<String> entries;
+        String next;
+    }
+
+    /** Either the result of a request or the challenge of the registry asking for a token. */
+    @Value
+    private static class Reply<T> {
+        T result;
+        String challenge;
+    }
+
+    /** Tokens are bound to the credentials and the scope they were issued for. */
+    @Value
+    private static class TokenKey {
+        ConnectionProfile connection;
+        String scope;
+    }
+
+    @Value
+    static class Token {
+        String value;
+        long expiresAt;
+
+        boolean isValid() {
+            return System.currentTimeMillis() < expiresAt;
+        }
+    }
+
+    /** Registers the Docker registry connector. */
+    @Extension(ordinal = -1)
+    public static final class DescriptorImpl extends ConnectorDescriptor {
+
+        @Override
+        public String getId() {
+            return ID;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return Messages.selection_serverType_docker();
+        }
+
+        @Override
+        public Connector create(
+                @Nonnull ArtifactRepoParamDefinition definition, @Nonnull ConnectionProfile connection) {
+            return new DockerRegistry(definition, connection);
+        }
+    }
+}
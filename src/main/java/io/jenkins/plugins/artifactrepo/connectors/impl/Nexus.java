@@ -1,25 +1,46 @@
 package io.jenkins.plugins.artifactrepo.connectors.impl;
 
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import hudson.Extension;
 import io.jenkins.plugins.artifactrepo.ArtifactRepoParamDefinition;
 import io.jenkins.plugins.artifactrepo.Messages;
 import io.jenkins.plugins.artifactrepo.connectors.Connector;
+import io.jenkins.plugins.artifactrepo.connectors.ConnectorDescriptor;
+import io.jenkins.plugins.artifactrepo.connectors.ConnectorDescriptor.Capability;
+import io.jenkins.plugins.artifactrepo.connectors.IndexedConnector;
+import io.jenkins.plugins.artifactrepo.helper.ConnectorExecutor;
 import io.jenkins.plugins.artifactrepo.helper.Constants.ParameterType;
+import io.jenkins.plugins.artifactrepo.helper.JsonStreamReader;
 import io.jenkins.plugins.artifactrepo.helper.PluginHelper;
-import io.jenkins.plugins.artifactrepo.model.HttpResponse;
+import io.jenkins.plugins.artifactrepo.helper.PluginMetrics;
+import io.jenkins.plugins.artifactrepo.model.ConnectionProfile;
+import io.jenkins.plugins.artifactrepo.model.IndexEntry;
+import io.jenkins.plugins.artifactrepo.model.IndexUpdate;
+import io.jenkins.plugins.artifactrepo.model.QueryKey;
 import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
-import org.apache.commons.lang.Validate;
+import jenkins.util.SystemProperties;
+import lombok.Value;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.http.HttpStatus;
+import org.apache.commons.lang3.Validate;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.AuthCache;
@@ -28,22 +49,29 @@ import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 /** A class that provides access to the supported REST endpoints of Sonatype Nexus. */
-public class Nexus implements Connector {
+public class Nexus implements Connector, IndexedConnector {
 
     public static final String ID = "nexus";
+    private static final boolean STOP_AT_VERSION_LIMIT =
+            SystemProperties.getBoolean(Nexus.class.getName() + ".stopAtVersionLimit", true);
     private final ArtifactRepoParamDefinition definition;
-    private final HttpClientBuilder httpBuilder;
+    private final ConnectionProfile connection;
+    private final CloseableHttpClient httpClient;
     private HttpClientContext preemptiveContext;
 
     public Nexus(@Nonnull ArtifactRepoParamDefinition definition) {
+        this(definition, ConnectionProfile.of(definition));
+    }
+
+    public Nexus(@Nonnull ArtifactRepoParamDefinition definition, @Nonnull ConnectionProfile connection) {
         this.definition = definition;
-        httpBuilder = PluginHelper.getBuilder(
-                definition.getCredentialsId(), definition.getProxy(), definition.isIgnoreCertificate());
+        this.connection = connection;
+        httpClient = PluginHelper.getClient(connection);
     }
 
     @Override
@@ -61,37 +89,122 @@ public class Nexus implements Connector {
         }
     }
 
+    /**
+     * Lists all assets matching the artifact name. The search API does not return them ordered by
+     * name, so the first entries found are not the ones displayed and all pages are requested even
+     * if fewer entries are displayed.
+     */
     private List<ResultEntry> getArtifactResult() {
-        HttpResponse response = getArtifactsResponse(null);
-        if (response.getRc() == HttpStatus.SC_OK) {
-            return parseArtifactsPayload(response.getPayload());
+        return collectPages(this::getArtifactsPage, entry -> true, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Lists all components of the configured repository. Nexus does not offer a way to only request
+     * the changes since a point in time, hence the update is always a full one.
+     */
+    @Override
+    public IndexUpdate fetchIndex(String cursor, int limit) {
+        Validate.notBlank(definition.getRepoName(), "A repository is required to index its artifacts");
+        int stopAfter = limit < Integer.MAX_VALUE ? limit + 1 : limit;
+        return new IndexUpdate(collectPages(this::getComponentsPage, entry -> true, stopAfter), true, null);
+    }
+
+    /**
+     * Follow the continuation tokens of a paginated API page by page. As soon as the token of a page
+     * is known the request for the next page is sent while the entries of the current page are
+     * processed. Only the pages currently being processed are kept in memory.
+     *
+     * <p>The next page is requested on the {@link ConnectorExecutor} so that it counts towards the
+     * limits of the server. If they are exhausted the page is requested by the calling thread. A
+     * pending request is cancelled once it is not needed anymore, e.g. if the limit is reached or
+     * the caller is interrupted because the build page stopped waiting.
+     *
+     * <p>Stopping at a limit is only correct if the pages are in display order. This holds for the
+     * version search ordered by version but not for the artifact search, whose results are not
+     * ordered by name. Artifact searches therefore always request all pages.
+     *
+     * @param fetcher Requests the page of the given continuation token (null for the first page).
+     * @param accept Decides whether an entry is collected, e.g. to skip entries seen on earlier pages.
+     * @param limit Stop requesting further pages once this number of entries has been collected, use
+     *     {@link Integer#MAX_VALUE} to request all pages.
+     */
+    private <T> List<T> collectPages(
+            @Nonnull Function<String, Page<T>> fetcher, @Nonnull Predicate<T> accept, int limit) {
+        List<T> result = new ArrayList<>();
+        PluginMetrics.Tags tags = PluginMetrics.Tags.of(definition);
+
+        Future<Page<T>> nextPage = CompletableFuture.completedFuture(fetcher.apply(null));
+        try {
+            while (nextPage != null) {
+                Page<T> page = awaitPage(nextPage);
+                String token = page.getToken();
+                nextPage = StringUtils.isBlank(token) ? null : prefetch(() -> fetcher.apply(token));
+
+                page.getEntries().stream().filter(accept).forEach(result::add);
+                PluginMetrics.count(PluginMetrics.PAGES, tags);
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        } finally {
+            Optional.ofNullable(nextPage).ifPresent(next -> next.cancel(true));
         }
 
-        throw new IllegalArgumentException("HTTP response code is invalid: " + response.getRc());
+        return result;
     }
 
-    private List<ResultEntry> getVersionResult() {
-        List<ResultEntry> result = new ArrayList<>();
+    private <T> Future<Page<T>> prefetch(@Nonnull Supplier<Page<T>> request) {
+        return ConnectorExecutor.submit(definition.getServerUrl(), request)
+                .orElseGet(() -> CompletableFuture.completedFuture(request.get()));
+    }
 
-        Pattern versionPattern = Pattern.compile(definition.getVersionRegex());
-        for (ResultEntry entry : getArtifactResult()) {
-            Optional<String> version = extractVersion(entry.getValue(), versionPattern);
-            version.ifPresent(v -> result.add(new ResultEntry(v, entry.getValue())));
+    private static <T> Page<T> awaitPage(@Nonnull Future<Page<T>> page) {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the next page", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
         }
+    }
 
-        return result;
+    /**
+     * Search the components of the artifact ordered by version, newest first. Every component
+     * contributes a single entry per version instead of one per asset (jar, pom, sources, ...) and
+     * versions already seen on earlier pages are skipped. If the definition allows it no further
+     * pages are requested once enough distinct versions have been found.
+     */
+    private List<ResultEntry> getVersionResult() {
+        int limit = definition.getVersionLimit();
+        Set<String> versions = new HashSet<>();
+        return collectPages(
+                this::getVersionsPage, entry -> versions.add(entry.getKey()), limit > 0 ? limit : Integer.MAX_VALUE);
     }
 
+    /** The repository list rarely changes, hence it is only downloaded again if it was modified. */
     private List<ResultEntry> getRepositoryResult() {
-        List<ResultEntry> result = new ArrayList<>();
-
-        HttpResponse response = getRepositoriesResponse();
+        return PluginHelper.getConditional(
+                definition.getServerUrl() + "/service/rest/v1/repositories",
+                httpClient,
+                getPreemptiveAuthContext(),
+                QueryKey.of(definition, connection),
+                this::parseRepositoriesPayload);
+    }
 
-        Validate.isTrue(response.getRc() == HttpStatus.SC_OK, Messages.log_failedRequest(response.getRc()));
+    private List<ResultEntry> parseRepositoriesPayload(@Nonnull InputStream payload) {
+        List<ResultEntry> result = new ArrayList<>();
 
-        JSONArray root = new JSONArray(response.getPayload());
-        for (int i = 0; i < root.length(); i++) {
-            JSONObject repo = root.getJSONObject(i);
+        JsonStreamReader reader = new JsonStreamReader(payload);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            JSONObject repo = reader.nextObject();
             if (!isValidRepoType(repo.getString("type")) || !isValidFormatType(repo.getString("format"))) {
                 continue;
             }
@@ -106,7 +219,7 @@ public class Nexus implements Connector {
         return result;
     }
 
-    private HttpResponse getArtifactsResponse(String continuationToken) {
+    private Page<ResultEntry> getArtifactsPage(String continuationToken) {
         String url = definition.getServerUrl() + "/service/rest/v1/search?name=" + definition.getArtifactName();
         if (StringUtils.isNotBlank(definition.getRepoName())) {
             url = url + "&repository=" + definition.getRepoName();
@@ -115,51 +228,139 @@ public class Nexus implements Connector {
             url = url + "&continuationToken=" + continuationToken;
         }
 
-        return PluginHelper.get(url, httpBuilder, getPreemptiveAuthContext());
+        return PluginHelper.get(url, httpClient, getPreemptiveAuthContext(), Nexus::parseArtifactsPayload);
     }
 
-    private HttpResponse getRepositoriesResponse() {
-        return PluginHelper.get(
-                definition.getServerUrl() + "/service/rest/v1/repositories", httpBuilder, getPreemptiveAuthContext());
-    }
+    /**
+     * Parse a search result page. The items of the page are read one after the other so only a single
+     * item is materialized at a time.
+     */
+    static Page<ResultEntry> parseArtifactsPayload(@Nonnull InputStream payload) {
+        List<ResultEntry> entries = new ArrayList<>();
+        String token = null;
+
+        JsonStreamReader reader = new JsonStreamReader(payload);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("items".equals(name)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    parseAssets(reader.nextObject(), entries);
+                }
+            } else if ("continuationToken".equals(name)) {
+                token = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
 
-    private List<ResultEntry> parseArtifactsPayload(@Nonnull String jsonPayload) {
-        List<ResultEntry> result = new ArrayList<>();
+        return new Page<>(entries, token);
+    }
 
-        JSONObject root = new JSONObject(jsonPayload);
+    private Page<ResultEntry> getVersionsPage(String continuationToken) {
+        String url = definition.getServerUrl() + "/service/rest/v1/search?sort=version&direction=desc&name="
+                + definition.getArtifactName();
+        if (StringUtils.isNotBlank(definition.getRepoName())) {
+            url = url + "&repository=" + definition.getRepoName();
+        }
+        if (StringUtils.isNotBlank(continuationToken)) {
+            url = url + "&continuationToken=" + continuationToken;
+        }
 
-        // first check for continuation token and request further data if required
-        Object tokenObj = root.get("continuationToken");
-        if (tokenObj instanceof String) {
-            String token = (String) tokenObj;
-            if (StringUtils.isNotBlank(token)) {
-                HttpResponse response = getArtifactsResponse(token);
-                Validate.isTrue(response.getRc() == HttpStatus.SC_OK, Messages.log_failedRequest(response.getRc()));
+        Pattern versionPattern = definition.getVersionPattern();
+        return PluginHelper.get(
+                url, httpClient, getPreemptiveAuthContext(), payload -> parseVersionsPayload(payload, versionPattern));
+    }
 
-                result.addAll(parseArtifactsPayload(response.getPayload()));
+    /**
+     * Parse a search result page into versions. Only the first asset of a component the version can
+     * be extracted from is kept, all its other assets share the same version.
+     */
+    static Page<ResultEntry> parseVersionsPayload(@Nonnull InputStream payload, @Nonnull Pattern versionPattern) {
+        List<ResultEntry> entries = new ArrayList<>();
+        String token = null;
+
+        JsonStreamReader reader = new JsonStreamReader(payload);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("items".equals(name)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    List<ResultEntry> assets = new ArrayList<>();
+                    parseAssets(reader.nextObject(), assets);
+                    assets.stream()
+                            .flatMap(asset -> extractVersion(asset.getValue(), versionPattern)
+                                    .map(version -> new ResultEntry(version, asset.getValue()))
+                                    .stream())
+                            .findFirst()
+                            .ifPresent(entries::add);
+                }
+            } else if ("continuationToken".equals(name)) {
+                token = reader.nextString();
+            } else {
+                reader.skipValue();
             }
         }
 
-        // next process the current json
-        JSONArray items = root.getJSONArray("items");
-        for (int i = 0; i < items.length(); i++) {
-            JSONObject artifact = items.getJSONObject(i);
-            JSONArray assets = artifact.getJSONArray("assets");
-            for (int j = 0; j < assets.length(); j++) {
-                JSONObject asset = assets.getJSONObject(j);
-                String value = asset.getString("downloadUrl");
-                String key = StringUtils.substringAfterLast(value, "/");
+        return new Page<>(entries, token);
+    }
+
+    private Page<IndexEntry> getComponentsPage(String continuationToken) {
+        String url = definition.getServerUrl() + "/service/rest/v1/components?repository=" + definition.getRepoName();
+        if (StringUtils.isNotBlank(continuationToken)) {
+            url = url + "&continuationToken=" + continuationToken;
+        }
+
+        return PluginHelper.get(url, httpClient, getPreemptiveAuthContext(), Nexus::parseComponentsPayload);
+    }
 
-                if (StringUtils.isNoneBlank(value, key) && !StringUtils.endsWithAny(key, "md5", "sha1")) {
-                    result.add(new ResultEntry(key, value));
+    /**
+     * Parse a page of the components API. The assets are stored along with the name of their
+     * component as the search API matches the artifact name against the component name.
+     */
+    static Page<IndexEntry> parseComponentsPayload(@Nonnull InputStream payload) {
+        List<IndexEntry> entries = new ArrayList<>();
+        String token = null;
+
+        JsonStreamReader reader = new JsonStreamReader(payload);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("items".equals(name)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    JSONObject component = reader.nextObject();
+                    List<ResultEntry> assets = new ArrayList<>();
+                    parseAssets(component, assets);
+                    assets.forEach(asset ->
+                            entries.add(new IndexEntry(component.getString("name"), asset.getKey(), asset.getValue())));
                 }
+            } else if ("continuationToken".equals(name)) {
+                token = reader.nextString();
+            } else {
+                reader.skipValue();
             }
         }
 
-        return result;
+        return new Page<>(entries, token);
+    }
+
+    private static void parseAssets(@Nonnull JSONObject artifact, @Nonnull List<ResultEntry> result) {
+        JSONArray assets = artifact.getJSONArray("assets");
+        for (int j = 0; j < assets.length(); j++) {
+            JSONObject asset = assets.getJSONObject(j);
+            String value = asset.getString("downloadUrl");
+            String key = StringUtils.substringAfterLast(value, "/");
+
+            if (StringUtils.isNoneBlank(value, key) && !StringUtils.endsWithAny(key, "md5", "sha1")) {
+                result.add(new ResultEntry(key, value));
+            }
+        }
     }
 
-    private Optional<String> extractVersion(@Nonnull String path, @Nonnull Pattern pattern) {
+    private static Optional<String> extractVersion(@Nonnull String path, @Nonnull Pattern pattern) {
         Matcher versionMatcher = pattern.matcher(path);
         if (versionMatcher.matches() && versionMatcher.groupCount() >= 1) {
             return Optional.of(versionMatcher.group(1));
@@ -174,8 +375,10 @@ public class Nexus implements Connector {
         }
 
         HttpClientContext context = HttpClientContext.create();
+        context.setAttribute(PluginMetrics.TAGS_ATTRIBUTE, PluginMetrics.Tags.of(definition));
 
-        StandardUsernamePasswordCredentials jenkinsCreds = PluginHelper.getCredentials(definition.getCredentialsId());
+        StandardUsernamePasswordCredentials jenkinsCreds =
+                PluginHelper.getCredentials(connection.getCredentialsId(), connection.getCredentialsContext());
 
         Optional.of(jenkinsCreds).ifPresent(creds -> {
             CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
@@ -221,4 +424,45 @@ public class Nexus implements Connector {
             return definition.getFormatType().isOther()
                     && Stream.of("maven2", "npm", "bower", "pypi", "docker").noneMatch(s -> s.equals(value));
     }
+
+    /** The entries of a single result page along with the token of the next page. */
+    @Value
+    static class Page<T> {
+        List<T> entries;
+        String token;
+    }
+
+    /** Registers the Nexus connector. */
+    @Extension
+    public static final class DescriptorImpl extends ConnectorDescriptor {
+
+        @Override
+        public String getId() {
+            return ID;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return Messages.selection_serverType_nexus();
+        }
+
+        @Override
+        public Connector create(
+                @Nonnull ArtifactRepoParamDefinition definition, @Nonnull ConnectionProfile connection) {
+            return new Nexus(definition, connection);
+        }
+
+        /**
+         * Versions are listed newest first, the index can only be updated as a whole. The version
+         * order of Nexus does not always match the one of the parameter, e.g. for qualifiers like
+         * <code>-rc1</code>. Stopping after the limit may then miss versions, hence it can be turned
+         * off.
+         */
+        @Override
+        public Set<Capability> getCapabilities(@Nonnull ArtifactRepoParamDefinition definition) {
+            return STOP_AT_VERSION_LIMIT && ParameterType.VERSION.equals(definition.getParamType())
+                    ? EnumSet.of(Capability.SERVER_LIMIT)
+                    : EnumSet.noneOf(Capability.class);
+        }
+    }
 }
@@ -36,36 +36,51 @@ import java.util.Comparator;
 /**
  * This is an updated version with enhancements made by Daniel Migowski, Andre Bogus, and David
  * Koelle. Updated by David Koelle in 2017.
+ *
+ * <p>The chunks of both strings are compared in place by index ranges instead of copying them into
+ * new strings, so a comparison does not allocate any memory.
  */
 public class AlphanumComparator implements Comparator<String>, Serializable {
     public static final long serialVersionUID = 5201708231682976429L;
 
-    private boolean isDigit(char ch) {
+    private static boolean isDigit(char ch) {
         return ((ch >= 48) && (ch <= 57));
     }
 
-    /** Length of string is passed in for improved efficiency (only need to calculate it once) * */
-    private String getChunk(String s, int slength, int marker) {
-        StringBuilder chunk = new StringBuilder();
-        char c = s.charAt(marker);
-        chunk.append(c);
+    /** Returns the index after the last character of the chunk that starts at the given marker. */
+    private static int getChunkEnd(String s, int slength, int marker) {
+        boolean digit = isDigit(s.charAt(marker));
         marker++;
-        if (isDigit(c)) {
-            while (marker < slength) {
-                c = s.charAt(marker);
-                if (!isDigit(c)) break;
-                chunk.append(c);
-                marker++;
+        while (marker < slength && isDigit(s.charAt(marker)) == digit) {
+            marker++;
+        }
+        return marker;
+    }
+
+    /**
+     * Compare two chunks. If both chunks are numeric the longer one is the bigger one and only if both
+     * have the same length the first different digit counts. Otherwise, the chunks are compared like
+     * {@link String#compareTo(String)} does.
+     */
+    private static int compareChunks(String s1, int start1, int end1, String s2, int start2, int end2) {
+        int length1 = end1 - start1;
+        int length2 = end2 - start2;
+
+        if (isDigit(s1.charAt(start1)) && isDigit(s2.charAt(start2))) {
+            int result = length1 - length2;
+            if (result != 0) {
+                return result;
             }
-        } else {
-            while (marker < slength) {
-                c = s.charAt(marker);
-                if (isDigit(c)) break;
-                chunk.append(c);
-                marker++;
+        }
+
+        int limit = Math.min(length1, length2);
+        for (int i = 0; i < limit; i++) {
+            int result = s1.charAt(start1 + i) - s2.charAt(start2 + i);
+            if (result != 0) {
+                return result;
             }
         }
-        return chunk.toString();
+        return length1 - length2;
     }
 
     public int compare(String s1, String s2) {
@@ -79,32 +94,14 @@ public class AlphanumComparator implements Comparator<String>, Serializable {
         int s2Length = s2.length();
 
         while (thisMarker < s1Length && thatMarker < s2Length) {
-            String thisChunk = getChunk(s1, s1Length, thisMarker);
-            thisMarker += thisChunk.length();
-
-            String thatChunk = getChunk(s2, s2Length, thatMarker);
-            thatMarker += thatChunk.length();
-
-            // If both chunks contain numeric characters, sort them numerically
-            int result = 0;
-            if (isDigit(thisChunk.charAt(0)) && isDigit(thatChunk.charAt(0))) {
-                // Simple chunk comparison by length.
-                int thisChunkLength = thisChunk.length();
-                result = thisChunkLength - thatChunk.length();
-                // If equal, the first different number counts
-                if (result == 0) {
-                    for (int i = 0; i < thisChunkLength; i++) {
-                        result = thisChunk.charAt(i) - thatChunk.charAt(i);
-                        if (result != 0) {
-                            return result;
-                        }
-                    }
-                }
-            } else {
-                result = thisChunk.compareTo(thatChunk);
-            }
+            int thisEnd = getChunkEnd(s1, s1Length, thisMarker);
+            int thatEnd = getChunkEnd(s2, s2Length, thatMarker);
 
+            int result = compareChunks(s1, thisMarker, thisEnd, s2, thatMarker, thatEnd);
             if (result != 0) return result;
+
+            thisMarker = thisEnd;
+            thatMarker = thatEnd;
         }
 
         return s1Length - s2Length;
@@ -0,0 +1,338 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import hudson.Extension;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import io.jenkins.plugins.artifactrepo.ArtifactRepoParamDefinition;
+import io.jenkins.plugins.artifactrepo.connectors.Connector;
+import io.jenkins.plugins.artifactrepo.connectors.ConnectorDescriptor;
+import io.jenkins.plugins.artifactrepo.connectors.ConnectorDescriptor.Capability;
+import io.jenkins.plugins.artifactrepo.connectors.IndexedConnector;
+import io.jenkins.plugins.artifactrepo.helper.Constants.ParameterType;
+import io.jenkins.plugins.artifactrepo.helper.Constants.SearchMode;
+import io.jenkins.plugins.artifactrepo.model.ConnectionProfile;
+import io.jenkins.plugins.artifactrepo.model.IndexEntry;
+import io.jenkins.plugins.artifactrepo.model.IndexUpdate;
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.java.Log;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Keeps an in-memory index of all artifacts of a repository. Parameters that opt in are answered
+ * from the index without any request to the repository. The index is kept up to date by a periodic
+ * synchronization which only requests the changes since the last run if the connector supports it.
+ *
+ * <p>An index is created on first request of a parameter and dropped once no parameter has used it
+ * for a while. Until the first synchronization has finished the parameters are answered by the
+ * repository as usual.
+ *
+ * <p>The artifacts are ordered by name, so a lookup only looks at the artifacts starting with the
+ * part of the artifact name before the first wildcard. All indexes together hold at most a
+ * configurable number of artifacts, the least recently used indexes are dropped first.
+ * Repositories holding more artifacts on their own are not indexed.
+ */
+@Log
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ArtifactIndex {
+
+    private static final String PREFIX = ArtifactIndex.class.getName();
+    private static final long SYNC_INTERVAL = SystemProperties.getLong(PREFIX + ".syncIntervalSeconds", 300L);
+    private static final long FULL_SYNC_INTERVAL = SystemProperties.getLong(PREFIX + ".fullSyncMinutes", 60L);
+    private static final long UNUSED_TIMEOUT = SystemProperties.getLong(PREFIX + ".unusedHours", 24L);
+    private static final int MAX_ENTRIES = Math.max(1, SystemProperties.getInteger(PREFIX + ".maxEntries", 200000));
+
+    private static final Map<IndexKey, Index> INDEXES = new ConcurrentHashMap<>();
+
+    /**
+     * Get the results of the given build definition from the index.
+     *
+     * @return The results or an empty optional if the definition does not use the index, the
+     *     connector does not support indexing or the index is not yet available.
+     */
+    public static Optional<List<ResultEntry>> lookup(
+            @Nonnull ArtifactRepoParamDefinition definition, @Nonnull ConnectionProfile connection) {
+        if (!isApplicable(definition)) {
+            return Optional.empty();
+        }
+
+        IndexKey key = new IndexKey(definition.getServerType(), connection, definition.getRepoName());
+        Index index = INDEXES.computeIfAbsent(key, k -> new Index(definition, connection));
+        index.touch();
+        if (!index.isReady()) {
+            index.scheduleSync();
+            return Optional.empty();
+        }
+
+        PluginMetrics.count(PluginMetrics.INDEX_HIT, PluginMetrics.Tags.of(definition));
+        return Optional.of(index.query(definition));
+    }
+
+    /** Drop all indexes. */
+    public static void clear() {
+        INDEXES.clear();
+    }
+
+    /**
+     * The index holds the artifacts of a single repository and does not preserve any server side
+     * ordering. Hence it can only answer artifact searches within a single repository.
+     */
+    private static boolean isApplicable(@Nonnull ArtifactRepoParamDefinition definition) {
+        return definition.isUseIndex()
+                && SearchMode.SEARCH.equals(definition.getSearchMode())
+                && StringUtils.equalsAny(definition.getParamType(), ParameterType.PATH, ParameterType.VERSION)
+                && StringUtils.isNotBlank(definition.getRepoName())
+                && !StringUtils.contains(definition.getRepoName(), ',');
+    }
+
+    /** Synchronize all indexes and drop the ones that have not been used for a while. */
+    static void syncAll() {
+        long unusedSince = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(UNUSED_TIMEOUT);
+        INDEXES.entrySet().removeIf(entry -> entry.getValue().getLastUsed() < unusedSince);
+        INDEXES.values().forEach(Index::sync);
+    }
+
+    /**
+     * Drop the least recently used indexes until all indexes together hold at most the max. number
+     * of artifacts.
+     */
+    private static void evict() {
+        long total = INDEXES.values().stream().mapToLong(Index::size).sum();
+        if (total <= MAX_ENTRIES) {
+            return;
+        }
+
+        List<Map.Entry<IndexKey, Index>> indexes = new ArrayList<>(INDEXES.entrySet());
+        indexes.sort(Comparator.comparingLong(entry -> entry.getValue().getLastUsed()));
+        for (Map.Entry<IndexKey, Index> entry : indexes) {
+            if (total <= MAX_ENTRIES) {
+                break;
+            }
+            if (INDEXES.remove(entry.getKey(), entry.getValue())) {
+                total -= entry.getValue().size();
+                log.log(
+                        Level.FINE,
+                        "Dropped the least recently used artifact index of {0}",
+                        entry.getKey().getRepoName());
+            }
+        }
+    }
+
+    /** Returns the part of the artifact name before the first wildcard. */
+    private static String getNamePrefix(@Nonnull String artifactName) {
+        int wildcard = StringUtils.indexOfAny(artifactName, '*', '?');
+        return wildcard < 0 ? artifactName : artifactName.substring(0, wildcard);
+    }
+
+    /** The entries are ordered by name first, the value makes the key of an artifact unique. */
+    private static String getEntryKey(@Nonnull IndexEntry entry) {
+        return entry.getName() + '\0' + entry.getValue();
+    }
+
+    /**
+     * Translates the wildcards supported by the search APIs (<code>*</code> and <code>?</code>) into
+     * a regex pattern.
+     */
+    private static Pattern getNamePattern(@Nonnull String artifactName) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : artifactName.toCharArray()) {
+            if (c != '*' && c != '?') {
+                literal.append(c);
+                continue;
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+            }
+            regex.append(c == '*' ? ".*" : ".");
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return PatternCache.compile(regex.toString());
+    }
+
+    @Value
+    private static class IndexKey {
+        String serverType;
+        ConnectionProfile connection;
+        String repoName;
+    }
+
+    private static final class Index {
+        private final ArtifactRepoParamDefinition definition;
+        private final ConnectionProfile connection;
+        private final AtomicBoolean syncing = new AtomicBoolean(false);
+        private volatile NavigableMap<String, IndexEntry> entries;
+        private volatile String cursor;
+        private volatile long lastFullSync = 0;
+        private volatile long retryAt = 0;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private volatile boolean supported = true;
+
+        /**
+         * @param definition The definition the index was requested for first. Only its connection
+         *     options and repository are used to synchronize the index.
+         */
+        private Index(ArtifactRepoParamDefinition definition, ConnectionProfile connection) {
+            this.definition = definition;
+            this.connection = connection;
+        }
+
+        private boolean isReady() {
+            return supported && entries != null;
+        }
+
+        private long getLastUsed() {
+            return lastUsed;
+        }
+
+        private void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+
+        private int size() {
+            Map<String, IndexEntry> current = entries;
+            return current == null ? 0 : current.size();
+        }
+
+        private List<ResultEntry> query(@Nonnull ArtifactRepoParamDefinition query) {
+            Pattern namePattern = getNamePattern(query.getArtifactName());
+            Pattern versionPattern =
+                    ParameterType.VERSION.equals(query.getParamType()) ? query.getVersionPattern() : null;
+
+            // only artifacts whose name starts with the fixed part of the artifact name can match
+            String prefix = getNamePrefix(query.getArtifactName());
+            NavigableMap<String, IndexEntry> current = entries;
+            NavigableMap<String, IndexEntry> candidates = prefix.isEmpty()
+                    ? current
+                    : current.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+
+            List<ResultEntry> result = new ArrayList<>();
+            for (IndexEntry entry : candidates.values()) {
+                if (!namePattern.matcher(entry.getName()).matches()) {
+                    continue;
+                }
+                if (versionPattern == null) {
+                    result.add(new ResultEntry(entry.getKey(), entry.getValue()));
+                    continue;
+                }
+
+                Matcher versionMatcher = versionPattern.matcher(entry.getValue());
+                if (versionMatcher.matches() && versionMatcher.groupCount() >= 1) {
+                    result.add(new ResultEntry(versionMatcher.group(1), entry.getValue()));
+                }
+            }
+            return result;
+        }
+
+        private void scheduleSync() {
+            if (!supported || syncing.get() || System.currentTimeMillis() < retryAt) {
+                return;
+            }
+            try {
+                Timer.get().execute(this::sync);
+            } catch (RejectedExecutionException e) {
+                log.log(Level.FINE, "Index synchronization was rejected", e);
+            }
+        }
+
+        /**
+         * Request the changes since the last synchronization and apply them. A full update is
+         * requested on first synchronization and regularly afterwards to get rid of deleted
+         * artifacts. Connectors that cannot list the changes only are synchronized by the full
+         * updates. Repositories with more artifacts than allowed are tried again with the next full
+         * update.
+         */
+        private void sync() {
+            if (!supported || System.currentTimeMillis() < retryAt || !syncing.compareAndSet(false, true)) {
+                return;
+            }
+
+            try {
+                Connector connector = Connector.getInstance(definition, connection);
+                if (!(connector instanceof IndexedConnector)) {
+                    supported = false;
+                    return;
+                }
+
+                long now = System.currentTimeMillis();
+                boolean fullDue = now - lastFullSync > TimeUnit.MINUTES.toMillis(FULL_SYNC_INTERVAL);
+                boolean incremental = ConnectorDescriptor.byId(definition.getServerType())
+                        .map(descriptor -> descriptor.supports(definition, Capability.INCREMENTAL_INDEX))
+                        .orElse(false);
+                if (!incremental && entries != null && !fullDue) {
+                    // listing everything again is left to the next full update
+                    return;
+                }
+
+                boolean full = entries == null || cursor == null || fullDue;
+                IndexUpdate update = ((IndexedConnector) connector).fetchIndex(full ? null : cursor, MAX_ENTRIES);
+
+                NavigableMap<String, IndexEntry> updated =
+                        update.isFull() || entries == null ? new TreeMap<>() : new TreeMap<>(entries);
+                update.getEntries().forEach(entry -> updated.put(getEntryKey(entry), entry));
+                if (updated.size() > MAX_ENTRIES) {
+                    log.log(
+                            Level.INFO,
+                            "The repository {0} holds more than {1} artifacts and is not indexed",
+                            new Object[] {definition.getRepoName(), MAX_ENTRIES});
+                    entries = null;
+                    cursor = null;
+                    retryAt = now + TimeUnit.MINUTES.toMillis(FULL_SYNC_INTERVAL);
+                    return;
+                }
+
+                entries = updated;
+                cursor = update.getCursor();
+                if (update.isFull()) {
+                    lastFullSync = now;
+                }
+                evict();
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Failed to synchronize the artifact index of " + connection.getServerUrl(), e);
+            } finally {
+                syncing.set(false);
+            }
+        }
+    }
+
+    /** Periodically synchronize all artifact indexes. */
+    @Extension
+    public static class Synchronizer extends AsyncPeriodicWork {
+
+        public Synchronizer() {
+            super("Artifact Repository Parameter index synchronization");
+        }
+
+        @Override
+        public long getRecurrencePeriod() {
+            return TimeUnit.SECONDS.toMillis(SYNC_INTERVAL);
+        }
+
+        @Override
+        protected void execute(TaskListener listener) {
+            syncAll();
+        }
+    }
+}
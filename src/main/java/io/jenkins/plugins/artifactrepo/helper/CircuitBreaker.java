@@ -0,0 +1,169 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import io.jenkins.plugins.artifactrepo.Messages;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import javax.annotation.Nonnull;
+import jenkins.util.SystemProperties;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.java.Log;
+
+/**
+ * Tracks the health of every repository server and fails requests fast while a server keeps
+ * failing. After the configured number of consecutive failures (connection errors, timeouts or
+ * server errors) the circuit of a server is opened and requests are rejected right away. Once the
+ * open duration has passed a single request is let through; if it succeeds the circuit is closed
+ * again, otherwise it stays open for another period.
+ *
+ * <p>While a circuit is open {@link ResultCache} serves the last known results regardless of their
+ * age.
+ */
+@Log
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CircuitBreaker {
+
+    private static final String PREFIX = CircuitBreaker.class.getName();
+    private static final int FAILURE_THRESHOLD = SystemProperties.getInteger(PREFIX + ".failureThreshold", 5);
+    private static final long OPEN_DURATION = SystemProperties.getLong(PREFIX + ".openSeconds", 30L);
+
+    private static final Map<String, Circuit> CIRCUITS = new ConcurrentHashMap<>();
+    // replaced by tests to control the open duration
+    static LongSupplier clock = System::currentTimeMillis;
+
+    /** Returns whether circuit breaking is enabled at all. */
+    public static boolean isEnabled() {
+        return FAILURE_THRESHOLD > 0;
+    }
+
+    /**
+     * Check whether a request to the server of the given URL may be sent. Must be called exactly
+     * once per request, right before it is sent.
+     *
+     * @return True if the request is the single trial request of a half open circuit. Its outcome
+     *     must be recorded or the trial must be {@link #release(String) released}, otherwise the
+     *     circuit never closes again.
+     * @throws OpenException If the circuit of the server is open.
+     */
+    public static boolean check(@Nonnull String url) {
+        if (!isEnabled()) {
+            return false;
+        }
+
+        String server = PluginHelper.getServerName(url);
+        Circuit circuit = CIRCUITS.get(server);
+        if (circuit == null) {
+            return false;
+        }
+        Boolean trial = circuit.allowRequest();
+        if (trial == null) {
+            throw new OpenException(Messages.error_circuitOpen(server));
+        }
+        return trial;
+    }
+
+    /**
+     * Give up the trial request of the server of the given URL without an outcome, e.g. because the
+     * request was interrupted before it was sent. The next request becomes the trial instead.
+     */
+    public static void release(@Nonnull String url) {
+        Circuit circuit = CIRCUITS.get(PluginHelper.getServerName(url));
+        if (circuit != null) {
+            circuit.release();
+        }
+    }
+
+    /** Record a successful request to the server of the given URL. */
+    public static void recordSuccess(@Nonnull String url) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Circuit circuit = CIRCUITS.get(PluginHelper.getServerName(url));
+        if (circuit != null) {
+            circuit.recordSuccess();
+        }
+    }
+
+    /** Record a failed request to the server of the given URL. */
+    public static void recordFailure(@Nonnull String url) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        String server = PluginHelper.getServerName(url);
+        if (CIRCUITS.computeIfAbsent(server, key -> new Circuit()).recordFailure()) {
+            log.log(Level.WARNING, "Requests to {0} keep failing, reject requests for {1} seconds", new Object[] {
+                server, OPEN_DURATION
+            });
+        }
+    }
+
+    /** Returns whether the circuit of the server of the given URL is currently open. */
+    public static boolean isOpen(@Nonnull String url) {
+        Circuit circuit = CIRCUITS.get(PluginHelper.getServerName(url));
+        return circuit != null && circuit.isOpen();
+    }
+
+    /** Close all circuits. */
+    public static void reset() {
+        CIRCUITS.clear();
+    }
+
+    private static final class Circuit {
+        private int failures = 0;
+        private long openUntil = 0;
+        private boolean trialRunning = false;
+
+        /** Returns null if the request is rejected, otherwise whether it is the trial request. */
+        private synchronized Boolean allowRequest() {
+            if (failures < FAILURE_THRESHOLD) {
+                return false;
+            }
+            // half open, let a single request through to probe the server
+            if (clock.getAsLong() >= openUntil && !trialRunning) {
+                trialRunning = true;
+                return true;
+            }
+            return null;
+        }
+
+        private synchronized boolean isOpen() {
+            return failures >= FAILURE_THRESHOLD && (trialRunning || clock.getAsLong() < openUntil);
+        }
+
+        private synchronized void release() {
+            trialRunning = false;
+        }
+
+        private synchronized void recordSuccess() {
+            failures = 0;
+            trialRunning = false;
+        }
+
+        /** Returns true if the failure opened the circuit. */
+        private synchronized boolean recordFailure() {
+            boolean wasClosed = failures < FAILURE_THRESHOLD;
+            failures = Math.min(failures + 1, FAILURE_THRESHOLD);
+            if (failures >= FAILURE_THRESHOLD) {
+                openUntil = clock.getAsLong() + TimeUnit.SECONDS.toMillis(OPEN_DURATION);
+                trialRunning = false;
+                return wasClosed;
+            }
+            return false;
+        }
+    }
+
+    /** Thrown if a request is rejected because the circuit of the server is open. */
+    public static class OpenException extends ConnectorExecutor.RejectedException {
+
+        private static final long serialVersionUID = 1L;
+
+        public OpenException(String message) {
+            super(message);
+        }
+    }
+}
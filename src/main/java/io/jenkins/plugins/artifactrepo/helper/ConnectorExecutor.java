@@ -0,0 +1,259 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkins.plugins.artifactrepo.Messages;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import javax.annotation.Nonnull;
+import jenkins.util.SystemProperties;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.java.Log;
+
+/**
+ * Runs the requests of the connectors on a dedicated, bounded executor instead of the HTTP thread
+ * of Jenkins that renders the parameter. The calling thread only waits a limited time for the
+ * result, so a slow repository cannot tie up the HTTP threads of Jenkins for the whole socket
+ * timeout.
+ *
+ * <p>Virtual threads are used if the JVM supports them, otherwise a fixed thread pool. In both cases
+ * the number of pending requests and the number of concurrent requests per repository server are
+ * limited. Requests exceeding a limit are rejected right away with a {@link RejectedException}.
+ */
+@Log
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ConnectorExecutor {
+
+    private static final String PREFIX = ConnectorExecutor.class.getName();
+    static final int THREADS = Math.max(1, SystemProperties.getInteger(PREFIX + ".threads", 16));
+    private static final int QUEUE_SIZE = Math.max(0, SystemProperties.getInteger(PREFIX + ".queueSize", 64));
+    private static final int MAX_PER_SERVER = Math.max(1, SystemProperties.getInteger(PREFIX + ".maxPerServer", 8));
+    private static final long WAIT_TIMEOUT = SystemProperties.getLong(PREFIX + ".waitSeconds", 30L);
+    private static final boolean VIRTUAL_THREADS = SystemProperties.getBoolean(PREFIX + ".virtualThreads", true);
+
+    private static final Semaphore PENDING = new Semaphore(THREADS + QUEUE_SIZE);
+    // requests that are running or waiting for a thread, prefetches are only started if a thread is idle
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+    private static final Map<String, Semaphore> SERVERS = new ConcurrentHashMap<>();
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    /**
+     * Run the given request on the connector executor and wait for its result.
+     *
+     * @param serverUrl The URL of the repository server the request is sent to.
+     * @param request The request to run.
+     * @return The result of the request.
+     * @throws RejectedException If a limit is exceeded or the request did not finish in time.
+     */
+    public static <T> T execute(@Nonnull String serverUrl, @Nonnull Supplier<T> request) {
+        return execute(serverUrl, 0, request);
+    }
+
+    /**
+     * Run the given request on the connector executor and wait at most the given time for its
+     * result.
+     *
+     * @param timeout Max. seconds to wait for the result or 0 to use the default.
+     * @see #execute(String, Supplier)
+     */
+    public static <T> T execute(@Nonnull String serverUrl, int timeout, @Nonnull Supplier<T> request) {
+        String server = PluginHelper.getServerName(serverUrl);
+        Semaphore serverPermits = SERVERS.computeIfAbsent(server, key -> new Semaphore(MAX_PER_SERVER));
+        if (!serverPermits.tryAcquire()) {
+            throw new RejectedException(Messages.error_serverBusy(server));
+        }
+        if (!PENDING.tryAcquire()) {
+            serverPermits.release();
+            throw new RejectedException(Messages.error_executorBusy());
+        }
+
+        Future<T> future;
+        ACTIVE.incrementAndGet();
+        try {
+            future = start(request, serverPermits);
+        } catch (RejectedExecutionException e) {
+            throw new RejectedException(Messages.error_executorBusy(), e);
+        }
+
+        return await(future, server, getWaitTimeout(timeout));
+    }
+
+    /**
+     * Returns the seconds to wait for the result of a request with the given timeout, the default if
+     * none is given. A result of 0 or less means to wait without a limit.
+     */
+    static long getWaitTimeout(int timeout) {
+        return timeout > 0 ? timeout : WAIT_TIMEOUT;
+    }
+
+    /**
+     * Start the given request on the connector executor without waiting for its result, e.g. to
+     * prefetch the next page of a paginated API. The request counts towards the same limits as any
+     * other request. It is only started if a thread is idle, so the caller never waits for a request
+     * that is queued behind others, possibly behind the caller itself. If a limit is exhausted or no
+     * thread is idle the request is not started, the caller is expected to run the request itself
+     * then.
+     *
+     * @param serverUrl The URL of the repository server the request is sent to.
+     * @param request The request to run.
+     * @return The started request or an empty optional if a limit is exhausted. Cancelling the
+     *     request interrupts it, the caller must do so once the result is not needed anymore.
+     */
+    public static <T> Optional<Future<T>> submit(@Nonnull String serverUrl, @Nonnull Supplier<T> request) {
+        if (!reserveIdleThread()) {
+            return Optional.empty();
+        }
+        String server = PluginHelper.getServerName(serverUrl);
+        Semaphore serverPermits = SERVERS.computeIfAbsent(server, key -> new Semaphore(MAX_PER_SERVER));
+        if (!serverPermits.tryAcquire()) {
+            ACTIVE.decrementAndGet();
+            return Optional.empty();
+        }
+        if (!PENDING.tryAcquire()) {
+            ACTIVE.decrementAndGet();
+            serverPermits.release();
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(start(request, serverPermits));
+        } catch (RejectedExecutionException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Count a request as active if a thread of the pool is idle. Virtual threads are started per
+     * request, hence a thread is always available.
+     */
+    private static boolean reserveIdleThread() {
+        if (!(EXECUTOR instanceof ThreadPoolExecutor)) {
+            ACTIVE.incrementAndGet();
+            return true;
+        }
+
+        int active = ACTIVE.get();
+        while (active < THREADS) {
+            if (ACTIVE.compareAndSet(active, active + 1)) {
+                return true;
+            }
+            active = ACTIVE.get();
+        }
+        return false;
+    }
+
+    /**
+     * Run the request on the executor. The caller has counted it as active already. The permits are
+     * released once the request finished or, if it is cancelled before it started, right away as the
+     * request is never run then.
+     */
+    private static <T> Future<T> start(@Nonnull Supplier<T> request, @Nonnull Semaphore serverPermits) {
+        AtomicBoolean started = new AtomicBoolean();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                ACTIVE.decrementAndGet();
+                PENDING.release();
+                serverPermits.release();
+            }
+        };
+
+        FutureTask<T> task = new FutureTask<>(() -> {
+            started.set(true);
+            try {
+                return request.get();
+            } finally {
+                release.run();
+            }
+        }) {
+            @Override
+            protected void done() {
+                if (isCancelled() && !started.get()) {
+                    release.run();
+                }
+            }
+        };
+
+        try {
+            EXECUTOR.execute(task);
+        } catch (RejectedExecutionException e) {
+            release.run();
+            throw e;
+        }
+        return task;
+    }
+
+    /** Returns the number of requests that are currently running or waiting for a thread. */
+    public static int getPending() {
+        return THREADS + QUEUE_SIZE - PENDING.availablePermits();
+    }
+
+    private static <T> T await(@Nonnull Future<T> future, @Nonnull String server, long timeout) {
+        try {
+            return timeout > 0 ? future.get(timeout, TimeUnit.SECONDS) : future.get();
+        } catch (TimeoutException e) {
+            // blocking socket reads cannot be interrupted, the request keeps its permits until the socket timeout
+            future.cancel(true);
+            throw new RejectedException(Messages.error_serverTimeout(server, timeout), e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedException(Messages.error_serverTimeout(server, timeout), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Create a virtual thread per task executor if the JVM provides one (Java 21+). The plugin is
+     * built for Java 11, hence the factory method is looked up by reflection.
+     */
+    private static ExecutorService createExecutor() {
+        if (VIRTUAL_THREADS) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                log.log(Level.FINE, "Virtual threads are not available, use a fixed thread pool instead", e);
+            }
+        }
+
+        return Executors.newFixedThreadPool(
+                THREADS, new NamingThreadFactory(new DaemonThreadFactory(), "ArtifactRepoParam.Connector"));
+    }
+
+    /** Thrown if a request is not executed or did not finish in time. The message is meant for users. */
+    public static class RejectedException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public RejectedException(String message) {
+            super(message);
+        }
+
+        public RejectedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
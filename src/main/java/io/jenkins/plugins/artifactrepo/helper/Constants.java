@@ -16,4 +16,18 @@ public final class Constants {
         public static final String REPOSITORY = "repository";
         public static final String TEST = "test";
     }
+
+    /** Defines the ID of the different search modes. */
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class SearchMode {
+        public static final String SEARCH = "search";
+        public static final String AQL_CREATED = "aqlCreated";
+        public static final String AQL_MODIFIED = "aqlModified";
+        public static final String VERSION_FOLDERS = "versionFolders";
+
+        /** Returns whether the given mode searches via the Artifactory Query Language. */
+        public static boolean isAql(String searchMode) {
+            return AQL_CREATED.equals(searchMode) || AQL_MODIFIED.equals(searchMode);
+        }
+    }
 }
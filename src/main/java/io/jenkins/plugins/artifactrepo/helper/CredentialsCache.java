@@ -0,0 +1,210 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import com.cloudbees.plugins.credentials.Credentials;
+import com.cloudbees.plugins.credentials.CredentialsProvider;
+import com.cloudbees.plugins.credentials.CredentialsStore;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import com.cloudbees.plugins.credentials.domains.Domain;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.ModelObject;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Indexes the username/password credentials visible in a context by their ID. Looking up the
+ * credentials of all providers is expensive on instances with many credentials, hence it is done
+ * only once per context and the index is reused until credentials are changed.
+ *
+ * <p>A context is identified by the full name of an item group, i.e. a folder or an empty string
+ * for the Jenkins root. If the credentials of a store change, only the indexes of the context of the
+ * store and of the folders below it are dropped, a change of the system credentials drops all
+ * indexes. Credentials of providers that are not persisted by Jenkins are picked up once the index
+ * expired.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class CredentialsCache {
+
+    /** The context of the Jenkins root. */
+    public static final String ROOT = "";
+
+    private static final long TTL = SystemProperties.getLong(CredentialsCache.class.getName() + ".ttlSeconds", 300L);
+    private static final Map<String, Index> INDEXES = new ConcurrentHashMap<>();
+    // the own credentials of the folders the indexes depend on, to tell if a save of a folder changed them
+    private static final Map<String, List<Credentials>> FOLDER_CREDENTIALS = new ConcurrentHashMap<>();
+
+    /**
+     * Get the username/password credentials with the given ID as visible in the given context.
+     *
+     * @param credId The ID of the credentials.
+     * @param context The full name of the item group to resolve the credentials in, see {@link
+     *     #getContext(Item)}.
+     * @return The credentials or null if no such credentials are visible in the context.
+     */
+    @CheckForNull
+    public static StandardUsernamePasswordCredentials get(@Nonnull String credId, @Nonnull String context) {
+        Index index = INDEXES.compute(context, (key, current) -> current != null && !current.isExpired()
+                ? current
+                : new Index(lookupCredentials(key)));
+        return index.getCredentials().get(credId);
+    }
+
+    /** Returns the context to resolve credentials in for the given item or the root if none is given. */
+    @Nonnull
+    public static String getContext(@CheckForNull Item item) {
+        return item == null ? ROOT : item.getParent().getFullName();
+    }
+
+    /** Drop all indexes so that credentials are looked up again on next access. */
+    public static void invalidateAll() {
+        INDEXES.clear();
+        FOLDER_CREDENTIALS.clear();
+    }
+
+    /**
+     * Drop the indexes of the given context and of all folders below it, as those see the
+     * credentials of the context as well.
+     */
+    public static void invalidate(@Nonnull String context) {
+        if (StringUtils.isBlank(context)) {
+            invalidateAll();
+            return;
+        }
+
+        String prefix = context + "/";
+        INDEXES.keySet().removeIf(key -> key.equals(context) || key.startsWith(prefix));
+        FOLDER_CREDENTIALS.keySet().removeIf(key -> key.equals(context) || key.startsWith(prefix));
+    }
+
+    private static Map<String, StandardUsernamePasswordCredentials> lookupCredentials(@Nonnull String context) {
+        ItemGroup<?> itemGroup = getItemGroup(context);
+        // record the folder credentials before the lookup, a change in between is detected on save then
+        for (ItemGroup<?> group = itemGroup; group instanceof Item; group = ((Item) group).getParent()) {
+            Item folder = (Item) group;
+            FOLDER_CREDENTIALS.computeIfAbsent(folder.getFullName(), key -> getOwnCredentials(folder));
+        }
+
+        Map<String, StandardUsernamePasswordCredentials> result = new HashMap<>();
+        // providers return the credentials of the nearest store first, keep those in case of duplicate IDs
+        CredentialsProvider.lookupCredentials(
+                        StandardUsernamePasswordCredentials.class, itemGroup, null, Collections.emptyList())
+                .forEach(creds -> result.putIfAbsent(creds.getId(), creds));
+        return result;
+    }
+
+    /** Returns the credentials of the stores of the given folder itself, without the inherited ones. */
+    private static List<Credentials> getOwnCredentials(@Nonnull Item folder) {
+        List<Credentials> result = new ArrayList<>();
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            for (CredentialsStore store : CredentialsProvider.lookupStores(folder)) {
+                if (store.getContext() == folder) {
+                    for (Domain domain : store.getDomains()) {
+                        result.addAll(store.getCredentials(domain));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Credentials are updated by replacing them in their store, hence they are compared by identity.
+     * Credentials implement equals by their ID only.
+     */
+    private static boolean isSame(@Nonnull List<Credentials> list1, @Nonnull List<Credentials> list2) {
+        if (list1.size() != list2.size()) {
+            return false;
+        }
+        for (int i = 0; i < list1.size(); i++) {
+            if (list1.get(i) != list2.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resolve the item group of the context. Lookups may happen in background threads without a
+     * user, hence the item is resolved as system to not depend on the permissions of the caller.
+     */
+    private static ItemGroup<?> getItemGroup(@Nonnull String context) {
+        Jenkins jenkins = Jenkins.get();
+        if (StringUtils.isBlank(context)) {
+            return jenkins;
+        }
+
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            Item item = jenkins.getItemByFullName(context);
+            return item instanceof ItemGroup ? (ItemGroup<?>) item : jenkins;
+        }
+    }
+
+    private static final class Index {
+        private final Map<String, StandardUsernamePasswordCredentials> credentials;
+        private final long created = System.currentTimeMillis();
+
+        private Index(Map<String, StandardUsernamePasswordCredentials> credentials) {
+            this.credentials = credentials;
+        }
+
+        private Map<String, StandardUsernamePasswordCredentials> getCredentials() {
+            return credentials;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - created > TimeUnit.SECONDS.toMillis(TTL);
+        }
+    }
+
+    /**
+     * Credentials are persisted as part of the system credentials, their stores or the folders. Drop
+     * the indexes that see the changed credentials. Folders are saved for many other reasons, e.g.
+     * on every scan of a multibranch project, hence their indexes are only dropped if their own
+     * credentials changed.
+     */
+    @Extension
+    public static class Invalidator extends SaveableListener {
+
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof SystemCredentialsProvider) {
+                invalidateAll();
+            } else if (o instanceof CredentialsStore) {
+                invalidate(getContext(((CredentialsStore) o).getContext()));
+            } else if (o instanceof Item && o instanceof ItemGroup) {
+                Item folder = (Item) o;
+                List<Credentials> previous = FOLDER_CREDENTIALS.get(folder.getFullName());
+                // without previous credentials no index depends on the folder
+                if (previous != null && !isSame(previous, getOwnCredentials(folder))) {
+                    invalidate(folder.getFullName());
+                }
+            }
+        }
+
+        /** Returns the context of a store, stores of the root or other objects like users affect all indexes. */
+        private static String getContext(@Nonnull ModelObject storeContext) {
+            return storeContext instanceof Item && storeContext instanceof ItemGroup
+                    ? ((Item) storeContext).getFullName()
+                    : ROOT;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
+import hudson.Extension;
+import hudson.ProxyConfiguration;
+import hudson.model.PeriodicWork;
+import io.jenkins.plugins.artifactrepo.model.ConnectionProfile;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.java.Log;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+/**
+ * Keeps one pooled HTTP client per connection profile. Requests against the same repository
+ * instance reuse already opened connections instead of doing a new TCP and TLS handshake for every
+ * single request.
+ */
+@Log
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class HttpClientRegistry {
+
+    private static final String PREFIX = HttpClientRegistry.class.getName();
+    static final int MAX_PER_ROUTE = SystemProperties.getInteger(PREFIX + ".maxConnectionsPerRoute", 10);
+    static final int MAX_TOTAL = SystemProperties.getInteger(PREFIX + ".maxConnectionsTotal", 50);
+    static final int KEEP_ALIVE = SystemProperties.getInteger(PREFIX + ".keepAliveSeconds", 60);
+    private static final int IDLE_TIMEOUT = SystemProperties.getInteger(PREFIX + ".idleTimeoutSeconds", 30);
+    private static final int UNUSED_TIMEOUT = SystemProperties.getInteger(PREFIX + ".unusedClientMinutes", 30);
+    private static final int RETIRE_DELAY = 60;
+
+    private static final Map<ConnectionProfile, ManagedClient> CLIENTS = new ConcurrentHashMap<>();
+
+    /**
+     * Get the shared HTTP client for the given connection profile. If the credentials or proxy
+     * settings behind the profile have changed since the client was created a new client is created
+     * and the old one gets closed once running requests had time to finish.
+     *
+     * <p>The returned client must not be closed by the caller.
+     */
+    public static CloseableHttpClient getClient(@Nonnull ConnectionProfile profile) {
+        Fingerprint fingerprint = Fingerprint.of(profile);
+        ManagedClient client = CLIENTS.compute(profile, (key, current) -> {
+            if (current != null && current.getFingerprint().isSame(fingerprint)) {
+                return current;
+            }
+            if (current != null) {
+                retire(current);
+            }
+            return create(key, fingerprint);
+        });
+
+        client.touch();
+        return client.getHttpClient();
+    }
+
+    private static ManagedClient create(@Nonnull ConnectionProfile profile, @Nonnull Fingerprint fingerprint) {
+        PoolingHttpClientConnectionManager manager =
+                PluginHelper.getConnectionManager(profile.isIgnoreCertificate(), profile.getSocketTimeout());
+        manager.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+        manager.setMaxTotal(MAX_TOTAL);
+
+        CloseableHttpClient httpClient = PluginHelper.getBuilder(
+                        profile.getCredentialsId(),
+                        profile.getProxy(),
+                        profile.isIgnoreCertificate(),
+                        profile.getCredentialsContext())
+                .setConnectionManager(manager)
+                .setDefaultRequestConfig(
+                        PluginHelper.getRequestConfig(profile.getConnectTimeout(), profile.getSocketTimeout()))
+                .setKeepAliveStrategy(PluginHelper.getKeepAliveStrategy(KEEP_ALIVE))
+                .build();
+
+        return new ManagedClient(httpClient, manager, fingerprint);
+    }
+
+    /**
+     * Closing a client right away would abort requests that are still running on it. Hence retired
+     * clients get closed with some delay.
+     */
+    private static void retire(@Nonnull ManagedClient client) {
+        Timer.get().schedule(client::close, RETIRE_DELAY, TimeUnit.SECONDS);
+    }
+
+    /** Close expired and idle connections and drop clients that have not been used for a while. */
+    static void evictIdleConnections() {
+        long unusedSince = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(UNUSED_TIMEOUT);
+
+        CLIENTS.forEach((profile, client) -> {
+            if (client.getLastUsed() < unusedSince && CLIENTS.remove(profile, client)) {
+                client.close();
+                return;
+            }
+
+            client.getConnectionManager().closeExpiredConnections();
+            client.getConnectionManager().closeIdleConnections(IDLE_TIMEOUT, TimeUnit.SECONDS);
+        });
+    }
+
+    @Getter
+    private static final class ManagedClient {
+        private final CloseableHttpClient httpClient;
+        private final PoolingHttpClientConnectionManager connectionManager;
+        private final Fingerprint fingerprint;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private ManagedClient(
+                CloseableHttpClient httpClient,
+                PoolingHttpClientConnectionManager connectionManager,
+                Fingerprint fingerprint) {
+            this.httpClient = httpClient;
+            this.connectionManager = connectionManager;
+            this.fingerprint = fingerprint;
+        }
+
+        private void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+
+        private void close() {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                log.log(Level.FINE, "Failed to close a pooled HTTP client", e);
+            }
+        }
+    }
+
+    /**
+     * Everything that is not part of the profile itself but has an impact on the created client, i.e.
+     * the credentials and the global Jenkins proxy. Changed credentials and proxy settings are
+     * replaced by new objects, hence the objects are compared by identity. Resolving the credentials
+     * is a lookup in the {@link CredentialsCache}, so checking the fingerprint on every request is
+     * cheap and the secrets are never read for it.
+     */
+    private static final class Fingerprint {
+        private final StandardUsernamePasswordCredentials credentials;
+        private final StandardUsernamePasswordCredentials proxyCredentials;
+        private final ProxyConfiguration jenkinsProxy;
+
+        private Fingerprint(
+                StandardUsernamePasswordCredentials credentials,
+                StandardUsernamePasswordCredentials proxyCredentials,
+                ProxyConfiguration jenkinsProxy) {
+            this.credentials = credentials;
+            this.proxyCredentials = proxyCredentials;
+            this.jenkinsProxy = jenkinsProxy;
+        }
+
+        private static Fingerprint of(@Nonnull ConnectionProfile profile) {
+            return new Fingerprint(
+                    getCredentials(profile.getCredentialsId(), profile.getCredentialsContext()),
+                    getCredentials(profile.getProxyCredentialsId(), profile.getCredentialsContext()),
+                    Jenkins.get().proxy);
+        }
+
+        private static StandardUsernamePasswordCredentials getCredentials(String credId, @Nonnull String context) {
+            return StringUtils.isBlank(credId) ? null : PluginHelper.getCredentials(credId, context);
+        }
+
+        private boolean isSame(@Nonnull Fingerprint other) {
+            return credentials == other.credentials
+                    && proxyCredentials == other.proxyCredentials
+                    && jenkinsProxy == other.jenkinsProxy;
+        }
+    }
+
+    /** Periodically clean up the connection pools of all registered clients. */
+    @Extension
+    public static class IdleConnectionEvictor extends PeriodicWork {
+
+        @Override
+        public long getRecurrencePeriod() {
+            return TimeUnit.SECONDS.toMillis(IDLE_TIMEOUT);
+        }
+
+        @Override
+        protected void doRun() {
+            evictIdleConnections();
+        }
+    }
+}
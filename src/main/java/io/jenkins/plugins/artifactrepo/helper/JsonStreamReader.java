@@ -0,0 +1,109 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nonnull;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * A simple pull parser on top of {@link JSONTokener} to walk through a JSON document without
+ * building the whole document tree in memory. Only the values explicitly requested via {@link
+ * #nextValue()} are materialized, e.g. one array element at a time.
+ *
+ * <p>Example for a payload like <code>{"items": [{...}, {...}]}</code>:
+ *
+ * <pre>
+ * reader.beginObject();
+ * while (reader.hasNext()) {
+ *     if ("items".equals(reader.nextName())) {
+ *         reader.beginArray();
+ *         while (reader.hasNext()) {
+ *             JSONObject item = reader.nextObject();
+ *         }
+ *     } else {
+ *         reader.skipValue();
+ *     }
+ * }
+ * </pre>
+ */
+public class JsonStreamReader {
+
+    private final JSONTokener tokener;
+
+    public JsonStreamReader(@Nonnull InputStream payload) {
+        this.tokener = new JSONTokener(new InputStreamReader(payload, StandardCharsets.UTF_8));
+    }
+
+    /** Consume the opening bracket of an object. */
+    public void beginObject() {
+        expect('{');
+    }
+
+    /** Consume the opening bracket of an array. */
+    public void beginArray() {
+        expect('[');
+    }
+
+    /**
+     * Check whether the current object or array has another member. Must be called exactly once
+     * before each member. If there are no further members the closing bracket is consumed.
+     */
+    public boolean hasNext() {
+        char c = tokener.nextClean();
+        if (c == ',') {
+            c = tokener.nextClean();
+        }
+        if (c == '}' || c == ']') {
+            return false;
+        }
+
+        tokener.back();
+        return true;
+    }
+
+    /** Read the name of the next member of the current object. */
+    public String nextName() {
+        expect('"');
+        String name = tokener.nextString('"');
+        expect(':');
+        return name;
+    }
+
+    /** Read and materialize the next value. Objects and arrays are read as a whole. */
+    public Object nextValue() {
+        return tokener.nextValue();
+    }
+
+    /**
+     * Read the next value and return it as string. Returns null for JSON null values or values that
+     * are not strings.
+     */
+    public String nextString() {
+        Object value = nextValue();
+        return value instanceof String ? (String) value : null;
+    }
+
+    /** Read the next value which must be a JSON object. */
+    public JSONObject nextObject() {
+        Object value = nextValue();
+        if (value instanceof JSONObject) {
+            return (JSONObject) value;
+        }
+        throw tokener.syntaxError("A JSON object was expected");
+    }
+
+    /** Read and discard the next value. */
+    public void skipValue() {
+        nextValue();
+    }
+
+    private void expect(char expected) {
+        char c = tokener.nextClean();
+        if (c != expected) {
+            throw new JSONException("Expected '" + expected + "' but found '" + c + "' " + tokener);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import javax.annotation.Nonnull;
+import jenkins.util.SystemProperties;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * A size bounded LRU cache of compiled regular expressions. Compiled patterns are immutable and
+ * thread-safe, hence they can be shared between all build definitions and form validations.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PatternCache {
+
+    private static final int MAX_ENTRIES =
+            SystemProperties.getInteger(PatternCache.class.getName() + ".maxEntries", 256);
+
+    private static final Map<String, Pattern> PATTERNS =
+            Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            });
+
+    /**
+     * Returns the compiled pattern of the given regex. The regex is only compiled if it is not
+     * already cached.
+     *
+     * @throws PatternSyntaxException If the regex is invalid.
+     */
+    public static Pattern compile(@Nonnull String regex) {
+        Pattern pattern = PATTERNS.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            PATTERNS.put(regex, pattern);
+        }
+        return pattern;
+    }
+}
@@ -0,0 +1,15 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import javax.annotation.Nonnull;
+
+/**
+ * A parser that consumes the payload of an HTTP response directly from the stream instead of
+ * reading it into memory first.
+ */
+@FunctionalInterface
+public interface PayloadParser<T> {
+
+    T parse(@Nonnull InputStream payload) throws IOException;
+}
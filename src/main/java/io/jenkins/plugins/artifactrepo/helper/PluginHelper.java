@@ -2,9 +2,15 @@ package io.jenkins.plugins.artifactrepo.helper;
 
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 import hudson.ProxyConfiguration;
+import io.jenkins.plugins.artifactrepo.Messages;
 import io.jenkins.plugins.artifactrepo.model.ArtifactRepoParamProxy;
+import io.jenkins.plugins.artifactrepo.model.ConnectionProfile;
 import io.jenkins.plugins.artifactrepo.model.HttpResponse;
+import io.jenkins.plugins.artifactrepo.model.QueryKey;
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
@@ -14,6 +20,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -21,70 +29,349 @@ import javax.annotation.Nonnull;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import lombok.extern.java.Log;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpStatus;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoutePlanner;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
 import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.http.util.EntityUtils;
 
 /**
  * A simple utility class to help create the HTTP connection from the plugin to the target
  * repository instances.
  */
+@Log
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class PluginHelper {
 
-    private static final int SOCKET_TIMEOUT = 60;
+    private static final String PREFIX = PluginHelper.class.getName();
+    private static final int CONNECT_TIMEOUT = SystemProperties.getInteger(PREFIX + ".connectTimeoutSeconds", 10);
+    private static final int SOCKET_TIMEOUT = SystemProperties.getInteger(PREFIX + ".socketTimeoutSeconds", 60);
+    private static final int MAX_RETRIES = SystemProperties.getInteger(PREFIX + ".maxRetries", 2);
+    private static final long RETRY_BACKOFF = SystemProperties.getLong(PREFIX + ".retryBackoffMillis", 200L);
+    private static final long MAX_RETRY_BACKOFF = 5000L;
     private static final int CONN_TIMEOUT = 60;
+    private static final int VALIDATE_AFTER_INACTIVITY = 2000;
     private static final String AGENT = "Jenkins Plugin - Artifact Repository Parameter";
+    private static volatile CachedRoutePlanner routePlanner;
 
     /**
      * A generic implementation to do GET requests with automatic resource clean up.
      *
      * @param url The URL to call
-     * @param builder The builder object used to create the {@link org.apache.http.client.HttpClient}.
+     * @param client The shared client obtained from {@link #getClient(ConnectionProfile)}. It is not
+     *     closed after the request so that the underlying connection can be reused.
      * @param context A possible context object to add to the request. Can be used to perform
      *     pre-emptive authentication (required by Nexus).
      * @return An instance of {@link HttpResponse} with both return code and response payload.
      */
     public static HttpResponse get(
-            @Nonnull String url, @Nonnull HttpClientBuilder builder, @Nonnull HttpClientContext context) {
+            @Nonnull String url, @Nonnull CloseableHttpClient client, @Nonnull HttpClientContext context) {
         Validate.notBlank(url, "The url must not be blank");
 
-        try (CloseableHttpClient httpClient = builder.build()) {
-            HttpGet get = new HttpGet(url);
-            try (CloseableHttpResponse response = httpClient.execute(get, context)) {
-                String payload = IOUtils.toString(response.getEntity().getContent(), StandardCharsets.UTF_8);
-                int rc = response.getStatusLine().getStatusCode();
-                return new HttpResponse(rc, payload);
+        HttpGet get = new HttpGet(url);
+        try (CloseableHttpResponse response = send(get, client, context)) {
+            PluginMetrics.Tags tags = PluginMetrics.getTags(context, url);
+            String payload = parse(response, tags, stream -> IOUtils.toString(stream, StandardCharsets.UTF_8));
+            int rc = response.getStatusLine().getStatusCode();
+            return new HttpResponse(rc, payload);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("An exception occurred while requesting data from remote server", e);
+        }
+    }
+
+    /**
+     * A GET request that hands the response payload as stream to the given parser. This avoids
+     * holding the whole payload in memory. Responses with a return code other than 200 are rejected
+     * before the payload is parsed.
+     *
+     * @param url The URL to call
+     * @param client The shared client obtained from {@link #getClient(ConnectionProfile)}.
+     * @param context A possible context object to add to the request.
+     * @param parser The parser that turns the payload into the requested result.
+     * @return The result of the parser.
+     */
+    public static <T> T get(
+            @Nonnull String url,
+            @Nonnull CloseableHttpClient client,
+            @Nonnull HttpClientContext context,
+            @Nonnull PayloadParser<T> parser) {
+        Validate.notBlank(url, "The url must not be blank");
+
+        return execute(new HttpGet(url), client, context, parser);
+    }
+
+    /**
+     * A conditional GET request for results that rarely change. If results of the same query have
+     * been received before, the request carries their validators and the server may answer with 304
+     * (not modified) instead of sending the whole payload again. In that case the previous results
+     * are returned without parsing anything.
+     *
+     * @param url The URL to call
+     * @param client The shared client obtained from {@link #getClient(ConnectionProfile)}.
+     * @param context A possible context object to add to the request.
+     * @param key The query the results belong to, used to look up and store previous results.
+     * @param parser The parser that turns the payload into the requested result.
+     * @return The current results.
+     * @see ValidatorCache
+     */
+    public static List<ResultEntry> getConditional(
+            @Nonnull String url,
+            @Nonnull CloseableHttpClient client,
+            @Nonnull HttpClientContext context,
+            @Nonnull QueryKey key,
+            @Nonnull PayloadParser<List<ResultEntry>> parser) {
+        Validate.notBlank(url, "The url must not be blank");
+
+        HttpGet get = new HttpGet(url);
+        ValidatorCache.Entry cached = ValidatorCache.get(key);
+        if (cached != null) {
+            Optional.ofNullable(cached.getEtag()).ifPresent(etag -> get.setHeader(HttpHeaders.IF_NONE_MATCH, etag));
+            Optional.ofNullable(cached.getLastModified())
+                    .ifPresent(date -> get.setHeader(HttpHeaders.IF_MODIFIED_SINCE, date));
+        }
+
+        try (CloseableHttpResponse response = send(get, client, context)) {
+            int rc = response.getStatusLine().getStatusCode();
+            PluginMetrics.Tags tags = PluginMetrics.getTags(context, url);
+            if (rc == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+                EntityUtils.consume(response.getEntity());
+                PluginMetrics.count(PluginMetrics.HTTP_NOT_MODIFIED, tags);
+                return cached.getResults();
             }
+            Validate.isTrue(rc == HttpStatus.SC_OK, Messages.log_failedRequest(rc));
+
+            List<ResultEntry> results = parse(response, tags, parser);
+            ValidatorCache.put(
+                    key,
+                    getHeader(response, HttpHeaders.ETAG),
+                    getHeader(response, HttpHeaders.LAST_MODIFIED),
+                    results);
+            return results;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("An exception occurred while requesting data from remote server", e);
+        }
+    }
+
+    private static String getHeader(@Nonnull org.apache.http.HttpResponse response, @Nonnull String name) {
+        return Optional.ofNullable(response.getFirstHeader(name)).map(Header::getValue).orElse(null);
+    }
+
+    /**
+     * A POST request with a plain text body that hands the response payload as stream to the given
+     * parser. Used for query endpoints that expect the query as request body.
+     *
+     * @see #get(String, CloseableHttpClient, HttpClientContext, PayloadParser)
+     */
+    public static <T> T post(
+            @Nonnull String url,
+            @Nonnull String body,
+            @Nonnull CloseableHttpClient client,
+            @Nonnull HttpClientContext context,
+            @Nonnull PayloadParser<T> parser) {
+        Validate.notBlank(url, "The url must not be blank");
+
+        HttpPost post = new HttpPost(url);
+        post.setEntity(new StringEntity(body, ContentType.TEXT_PLAIN));
+        return execute(post, client, context, parser);
+    }
+
+    /**
+     * Send the given request and hand the whole response to the parser, e.g. to read headers along
+     * with the payload. Unlike the other methods responses with any return code are handed over, it
+     * is up to the parser to check it.
+     *
+     * @param request The request to send, it may carry additional headers.
+     * @param client The shared client obtained from {@link #getClient(ConnectionProfile)}.
+     * @param context A possible context object to add to the request.
+     * @param parser The parser that turns the response into the requested result.
+     * @return The result of the parser.
+     */
+    public static <T> T exchange(
+            @Nonnull HttpUriRequest request,
+            @Nonnull CloseableHttpClient client,
+            @Nonnull HttpClientContext context,
+            @Nonnull ResponseParser<T> parser) {
+        try (CloseableHttpResponse response = send(request, client, context)) {
+            PluginMetrics.Tags tags = PluginMetrics.getTags(context, request.getURI().toString());
+            return parse(response, tags, payload -> parser.parse(response, payload));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("An exception occurred while requesting data from remote server", e);
+        }
+    }
+
+    private static <T> T execute(
+            @Nonnull HttpUriRequest request,
+            @Nonnull CloseableHttpClient client,
+            @Nonnull HttpClientContext context,
+            @Nonnull PayloadParser<T> parser) {
+        try (CloseableHttpResponse response = send(request, client, context)) {
+            int rc = response.getStatusLine().getStatusCode();
+            Validate.isTrue(rc == HttpStatus.SC_OK, Messages.log_failedRequest(rc));
+
+            return parse(response, PluginMetrics.getTags(context, request.getURI().toString()), parser);
         } catch (IOException e) {
             throw new IllegalArgumentException("An exception occurred while requesting data from remote server", e);
         }
     }
 
     /**
-     * Convenience method of {@link PluginHelper#get(String, HttpClientBuilder, HttpClientContext)}
+     * Hand the payload of the response to the parser. The size of the payload and the time spent in
+     * the parser are recorded. As payloads are parsed while they are streamed, the parse time
+     * includes the time to transfer the payload.
+     */
+    private static <T> T parse(
+            @Nonnull org.apache.http.HttpResponse response,
+            @Nonnull PluginMetrics.Tags tags,
+            @Nonnull PayloadParser<T> parser)
+            throws IOException {
+        long start = System.nanoTime();
+        // responses to HEAD requests and some error responses do not have a payload
+        InputStream content = response.getEntity() == null
+                ? InputStream.nullInputStream()
+                : response.getEntity().getContent();
+        try (CountingInputStream payload = new CountingInputStream(content)) {
+            try {
+                return parser.parse(payload);
+            } finally {
+                PluginMetrics.record(PluginMetrics.PARSE, tags, System.nanoTime() - start);
+                PluginMetrics.count(PluginMetrics.HTTP_BYTES, tags, payload.getByteCount());
+            }
+        }
+    }
+
+    /**
+     * Send the request unless the circuit of the server is open and record the outcome. Idempotent
+     * requests (GET) are retried with a jittered exponential backoff if the connection failed or the
+     * server is temporarily unavailable (502, 503, 504). Read timeouts are not retried since the
+     * server is reachable but too slow, retrying would only prolong the wait.
+     *
+     * <p>Every attempt passes the {@link CircuitBreaker} and its outcome is recorded, so no retry is
+     * sent once the failures opened the circuit. Attempts without an outcome, e.g. interrupted ones,
+     * give up the trial of a half open circuit.
+     *
+     * @return The response of the last attempt. It must be closed by the caller.
+     * @throws CircuitBreaker.OpenException If the circuit of the server is open.
+     */
+    private static CloseableHttpResponse send(
+            @Nonnull HttpUriRequest request, @Nonnull CloseableHttpClient client, @Nonnull HttpClientContext context)
+            throws IOException {
+        String url = request.getURI().toString();
+        PluginMetrics.Tags tags = PluginMetrics.getTags(context, url);
+        int attempts = HttpGet.METHOD_NAME.equals(request.getMethod()) ? Math.max(0, MAX_RETRIES) + 1 : 1;
+        for (int attempt = 1; ; attempt++) {
+            boolean trial = CircuitBreaker.check(url);
+            boolean recorded = false;
+            long start = System.nanoTime();
+            try {
+                CloseableHttpResponse response = client.execute(request, context);
+                PluginMetrics.record(PluginMetrics.HTTP_REQUESTS, tags, System.nanoTime() - start);
+                int rc = response.getStatusLine().getStatusCode();
+                recorded = true;
+                if (rc < HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+                    CircuitBreaker.recordSuccess(url);
+                    return response;
+                }
+                PluginMetrics.count(PluginMetrics.HTTP_FAILURES, tags);
+                CircuitBreaker.recordFailure(url);
+                if (attempt >= attempts || !isRetryable(rc)) {
+                    return response;
+                }
+                IOUtils.closeQuietly(response);
+                log.log(Level.FINE, "Request to {0} failed with RC = {1}, retry", new Object[] {url, rc});
+            } catch (IOException e) {
+                PluginMetrics.record(PluginMetrics.HTTP_REQUESTS, tags, System.nanoTime() - start);
+                PluginMetrics.count(PluginMetrics.HTTP_FAILURES, tags);
+                // an interrupted request tells nothing about the health of the server
+                if (Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                recorded = true;
+                CircuitBreaker.recordFailure(url);
+                if (attempt >= attempts || e instanceof SocketTimeoutException) {
+                    throw e;
+                }
+                log.log(Level.FINE, "Request to " + url + " failed, retry", e);
+            } finally {
+                if (trial && !recorded) {
+                    CircuitBreaker.release(url);
+                }
+            }
+            PluginMetrics.count(PluginMetrics.HTTP_RETRIES, tags);
+            backoff(attempt);
+        }
+    }
+
+    private static boolean isRetryable(int rc) {
+        return rc == HttpStatus.SC_BAD_GATEWAY
+                || rc == HttpStatus.SC_SERVICE_UNAVAILABLE
+                || rc == HttpStatus.SC_GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Wait before the next attempt. The wait time grows exponentially with every attempt and is
+     * randomized ("full jitter") so that clients failing at the same time do not retry in lockstep.
+     */
+    private static void backoff(int attempt) throws IOException {
+        long maxWait = Math.min(MAX_RETRY_BACKOFF, RETRY_BACKOFF << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxWait + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry the request");
+        }
+    }
+
+    /**
+     * Convenience method of {@link PluginHelper#get(String, CloseableHttpClient, HttpClientContext)}
      * with a default client context.
      */
-    public static HttpResponse get(@Nonnull String url, @Nonnull HttpClientBuilder builder) {
-        return get(url, builder, HttpClientContext.create());
+    public static HttpResponse get(@Nonnull String url, @Nonnull CloseableHttpClient client) {
+        return get(url, client, HttpClientContext.create());
+    }
+
+    /**
+     * Returns the shared and pooled HTTP client for the given connection options.
+     *
+     * @see HttpClientRegistry
+     */
+    public static CloseableHttpClient getClient(@Nonnull ConnectionProfile profile) {
+        return HttpClientRegistry.getClient(profile);
     }
 
     /**
@@ -93,14 +380,31 @@ public class PluginHelper {
      * @param repoCredId The ID of the credentials object that should get used to authenticate at the
      *     target repository instance.
      * @param proxy A proxy object with all the proxy information in it.
-     * @param ignoreSSL Whether or not to ignore invalid SSL certificates (e. g. self-signed).
+     * @param ignoreSSL Whether or not to ignore invalid SSL certificates (e. g. self-signed). Only
+     *     has an effect if no connection manager is set on the builder, otherwise use {@link
+     *     #getConnectionManager(boolean)}.
      * @return An {@link HttpClientBuilder} object with some pre-defined configurations.
      */
     public static HttpClientBuilder getBuilder(
             @Nonnull String repoCredId, @Nonnull ArtifactRepoParamProxy proxy, boolean ignoreSSL) {
+        return getBuilder(repoCredId, proxy, ignoreSSL, CredentialsCache.ROOT);
+    }
+
+    /**
+     * Returns an opinionated and preconfigured HttpClient builder object with credentials resolved
+     * in the given context.
+     *
+     * @see #getBuilder(String, ArtifactRepoParamProxy, boolean)
+     * @see CredentialsCache#getContext(hudson.model.Item)
+     */
+    public static HttpClientBuilder getBuilder(
+            @Nonnull String repoCredId,
+            @Nonnull ArtifactRepoParamProxy proxy,
+            boolean ignoreSSL,
+            @Nonnull String credentialsContext) {
         return Optional.of(HttpClients.custom())
                 .map(builder -> addDefaultConfig(builder))
-                .map(builder -> addBasicAuth(builder, repoCredId, proxy))
+                .map(builder -> addBasicAuth(builder, repoCredId, proxy, credentialsContext))
                 .map(builder -> addProxy(builder, proxy))
                 .map(builder -> addSslHandling(builder, ignoreSSL))
                 .orElse(HttpClients.custom());
@@ -111,14 +415,20 @@ public class PluginHelper {
      * the provided ID string.
      */
     public static StandardUsernamePasswordCredentials getCredentials(@Nonnull String credId) {
+        return getCredentials(credId, CredentialsCache.ROOT);
+    }
+
+    /**
+     * Get the Jenkins credentials object of type StandardUsernamePasswordCredentials identified by
+     * the provided ID string as visible in the given context.
+     *
+     * @see CredentialsCache
+     */
+    public static StandardUsernamePasswordCredentials getCredentials(
+            @Nonnull String credId, @Nonnull String credentialsContext) {
         Validate.notBlank(credId, "The credentials ID must not be blank");
 
-        return com.cloudbees.plugins.credentials.CredentialsProvider.lookupCredentials(
-                        StandardUsernamePasswordCredentials.class, Jenkins.get(), null, Collections.emptyList())
-                .stream()
-                .filter(cred -> StringUtils.equals(cred.getId(), credId))
-                .findFirst()
-                .orElse(null);
+        return CredentialsCache.get(credId, credentialsContext);
     }
 
     /** Takes a URL string and creates a {@link HttpHost} object of it. */
@@ -128,17 +438,47 @@ public class PluginHelper {
     }
 
     /**
-     * Adds a default request configuration that includes user agent, redirect and timeout
-     * information.
+     * Returns the host and port of the given URL. Limits and the health of a repository are tracked
+     * per server, i.e. all repositories of a server share them.
      */
-    private static HttpClientBuilder addDefaultConfig(@Nonnull HttpClientBuilder builder) {
-        RequestConfig.Builder configBuilder = RequestConfig.copy(RequestConfig.DEFAULT)
-                .setSocketTimeout(SOCKET_TIMEOUT * 1000)
+    public static String getServerName(@Nonnull String url) {
+        try {
+            URI uri = URI.create(url.trim());
+            if (StringUtils.isNotBlank(uri.getHost())) {
+                return uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+            }
+        } catch (IllegalArgumentException e) {
+            log.log(Level.FINE, "Cannot parse server URL " + url, e);
+        }
+        return url;
+    }
+
+    /**
+     * Returns the request configuration with the given timeouts.
+     *
+     * @param connectTimeout Max. seconds to establish a connection or 0 to use the default.
+     * @param socketTimeout Max. seconds to wait for data or 0 to use the default.
+     */
+    public static RequestConfig getRequestConfig(int connectTimeout, int socketTimeout) {
+        return RequestConfig.copy(RequestConfig.DEFAULT)
+                .setConnectTimeout(getTimeout(connectTimeout, CONNECT_TIMEOUT))
+                .setSocketTimeout(getTimeout(socketTimeout, SOCKET_TIMEOUT))
                 .setConnectionRequestTimeout(CONN_TIMEOUT * 1000)
                 .setRedirectsEnabled(true)
-                .setMaxRedirects(10);
+                .setMaxRedirects(10)
+                .build();
+    }
+
+    private static int getTimeout(int seconds, int defaultSeconds) {
+        return (seconds > 0 ? seconds : defaultSeconds) * 1000;
+    }
 
-        return builder.setUserAgent(AGENT).setDefaultRequestConfig(configBuilder.build());
+    /**
+     * Adds a default request configuration that includes user agent, redirect and timeout
+     * information.
+     */
+    private static HttpClientBuilder addDefaultConfig(@Nonnull HttpClientBuilder builder) {
+        return builder.setUserAgent(AGENT).setDefaultRequestConfig(getRequestConfig(0, 0));
     }
 
     /**
@@ -146,10 +486,13 @@ public class PluginHelper {
      * credentials provider.
      */
     private static HttpClientBuilder addBasicAuth(
-            @Nonnull HttpClientBuilder builder, @Nonnull String repoCredId, ArtifactRepoParamProxy proxy) {
+            @Nonnull HttpClientBuilder builder,
+            @Nonnull String repoCredId,
+            ArtifactRepoParamProxy proxy,
+            @Nonnull String credentialsContext) {
         CredentialsProvider httpProvider = new BasicCredentialsProvider();
 
-        Optional.of(getCredentials(repoCredId))
+        Optional.of(getCredentials(repoCredId, credentialsContext))
                 .ifPresent(repoCred -> httpProvider.setCredentials(
                         AuthScope.ANY,
                         new UsernamePasswordCredentials(
@@ -159,7 +502,7 @@ public class PluginHelper {
             return builder.setDefaultCredentialsProvider(httpProvider);
         }
 
-        Optional.of(getCredentials(proxy.getProxyCredentialsId()))
+        Optional.of(getCredentials(proxy.getProxyCredentialsId(), credentialsContext))
                 .ifPresent(proxyCredId -> httpProvider.setCredentials(
                         new AuthScope(proxy.getProxyHost(), Integer.parseInt(proxy.getProxyPort())),
                         new UsernamePasswordCredentials(
@@ -182,36 +525,48 @@ public class PluginHelper {
         } else if (jenkinsProxy != null && StringUtils.isNotBlank(jenkinsProxy.name)) {
             builder.setProxy(new HttpHost(jenkinsProxy.name, jenkinsProxy.port));
             if (StringUtils.isNotBlank(jenkinsProxy.getNoProxyHost())) {
-                final List<Pattern> patterns = Arrays.stream(
-                                jenkinsProxy.getNoProxyHost().split(","))
-                        .map(s ->
-                                s.replaceAll("\\*", ".*").replaceAll("\\?", ".").replaceAll("\\.", "\\."))
-                        .map(Pattern::compile)
-                        .collect(Collectors.toList());
-                builder.setRoutePlanner(new SystemDefaultRoutePlanner(new ProxySelector() {
-                    @Override
-                    public List<Proxy> select(URI uri) {
-                        return Collections.singletonList(
-                                patterns.stream()
-                                                .map(p -> p.matcher(uri.getHost()))
-                                                .anyMatch(Matcher::matches)
-                                        ? Proxy.NO_PROXY
-                                        : new Proxy(
-                                                Proxy.Type.HTTP,
-                                                new InetSocketAddress(jenkinsProxy.name, jenkinsProxy.port)));
-                    }
-
-                    @Override
-                    public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {
-                        throw new RuntimeException("Connection Failed for URI " + uri, ioe);
-                    }
-                }));
+                builder.setRoutePlanner(getRoutePlanner(jenkinsProxy));
             }
         }
 
         return builder;
     }
 
+    /**
+     * Returns a route planner bypassing the Jenkins proxy for the configured no proxy hosts. The
+     * planner is only created again if the proxy configuration has changed.
+     */
+    private static HttpRoutePlanner getRoutePlanner(@Nonnull ProxyConfiguration jenkinsProxy) {
+        String key = jenkinsProxy.name + ":" + jenkinsProxy.port + ":" + jenkinsProxy.getNoProxyHost();
+        CachedRoutePlanner cached = routePlanner;
+        if (cached != null && cached.key.equals(key)) {
+            return cached.planner;
+        }
+
+        final List<Pattern> patterns = Arrays.stream(jenkinsProxy.getNoProxyHost().split(","))
+                .map(s -> s.replaceAll("\\*", ".*").replaceAll("\\?", ".").replaceAll("\\.", "\\."))
+                .map(Pattern::compile)
+                .collect(Collectors.toList());
+        final Proxy proxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress(jenkinsProxy.name, jenkinsProxy.port));
+        HttpRoutePlanner planner = new SystemDefaultRoutePlanner(new ProxySelector() {
+            @Override
+            public List<Proxy> select(URI uri) {
+                return Collections.singletonList(
+                        patterns.stream().map(p -> p.matcher(uri.getHost())).anyMatch(Matcher::matches)
+                                ? Proxy.NO_PROXY
+                                : proxy);
+            }
+
+            @Override
+            public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {
+                throw new RuntimeException("Connection Failed for URI " + uri, ioe);
+            }
+        });
+
+        routePlanner = new CachedRoutePlanner(key, planner);
+        return planner;
+    }
+
     /**
      * Depending on what was configured in the Jenkins build config the builder may accept invalid SSL
      * certificates.
@@ -221,18 +576,85 @@ public class PluginHelper {
             return builder;
         }
 
-        try {
-            SSLContext sslContext = new SSLContextBuilder()
-                    .loadTrustMaterial(null, (x509Certificates, s) -> true)
-                    .build();
-            builder.setSSLContext(sslContext);
-
-            HostnameVerifier verifier = NoopHostnameVerifier.INSTANCE;
-            builder.setSSLSocketFactory(new SSLConnectionSocketFactory(sslContext, verifier));
-        } catch (NoSuchAlgorithmException | KeyStoreException | KeyManagementException e) {
-            throw new IllegalArgumentException("Cannot create a valid SSL ignore context", e);
+        SSLConnectionSocketFactory socketFactory = getSslSocketFactory(true);
+        return builder.setSSLSocketFactory(socketFactory);
+    }
+
+    /**
+     * Returns a pooling connection manager that takes the SSL handling into account. The SSL options
+     * of the {@link HttpClientBuilder} are ignored as soon as a connection manager is set.
+     */
+    public static PoolingHttpClientConnectionManager getConnectionManager(boolean ignoreSSL) {
+        return getConnectionManager(ignoreSSL, 0);
+    }
+
+    /**
+     * Returns a pooling connection manager with the given socket timeout.
+     *
+     * @param socketTimeout Max. seconds to wait for data or 0 to use the default.
+     * @see #getConnectionManager(boolean)
+     */
+    public static PoolingHttpClientConnectionManager getConnectionManager(boolean ignoreSSL, int socketTimeout) {
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", getSslSocketFactory(ignoreSSL))
+                .build();
+
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(registry);
+        manager.setDefaultSocketConfig(SocketConfig.custom()
+                .setSoTimeout(getTimeout(socketTimeout, SOCKET_TIMEOUT))
+                .build());
+        manager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY);
+        return manager;
+    }
+
+    /**
+     * Returns a keep-alive strategy that respects the keep-alive header of the server but never keeps
+     * a connection for longer than the given number of seconds.
+     */
+    public static ConnectionKeepAliveStrategy getKeepAliveStrategy(int maxSeconds) {
+        return (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            long maxKeepAlive = maxSeconds * 1000L;
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, maxKeepAlive) : maxKeepAlive;
+        };
+    }
+
+    /**
+     * Returns the shared SSL socket factory. The factories and with them their SSL contexts are
+     * created only once, so TLS sessions cached by a context can be resumed by all clients and
+     * connections instead of doing a full handshake for every new connection.
+     */
+    private static SSLConnectionSocketFactory getSslSocketFactory(boolean ignoreSSL) {
+        return ignoreSSL ? SslSocketFactories.TRUST_ALL : SslSocketFactories.DEFAULT;
+    }
+
+    /** Lazily creates the SSL socket factories on first use. */
+    private static final class SslSocketFactories {
+        private static final SSLConnectionSocketFactory DEFAULT = SSLConnectionSocketFactory.getSocketFactory();
+        private static final SSLConnectionSocketFactory TRUST_ALL = createTrustAll();
+
+        private static SSLConnectionSocketFactory createTrustAll() {
+            try {
+                SSLContext sslContext = new SSLContextBuilder()
+                        .loadTrustMaterial(null, (x509Certificates, s) -> true)
+                        .build();
+
+                HostnameVerifier verifier = NoopHostnameVerifier.INSTANCE;
+                return new SSLConnectionSocketFactory(sslContext, verifier);
+            } catch (NoSuchAlgorithmException | KeyStoreException | KeyManagementException e) {
+                throw new IllegalArgumentException("Cannot create a valid SSL ignore context", e);
+            }
         }
+    }
 
-        return builder;
+    private static final class CachedRoutePlanner {
+        private final String key;
+        private final HttpRoutePlanner planner;
+
+        private CachedRoutePlanner(String key, HttpRoutePlanner planner) {
+            this.key = key;
+            this.planner = planner;
+        }
     }
 }
@@ -0,0 +1,253 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import hudson.PluginWrapper;
+import io.jenkins.plugins.artifactrepo.ArtifactRepoParamDefinition;
+import io.jenkins.plugins.artifactrepo.model.QueryKey;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.metrics.api.Metrics;
+import jenkins.model.Jenkins;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.java.Log;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Collects timers and counters of the requests sent to the repositories and of the caches in front
+ * of them. Every metric is tagged with the server type, the server and the parameter type of the
+ * parameter it was recorded for.
+ *
+ * <p>If the Metrics plugin is installed the metrics are additionally reported to its registry.
+ * Otherwise they can be inspected through the {@link io.jenkins.plugins.artifactrepo.StatsAction}.
+ */
+@Log
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PluginMetrics {
+
+    /** The attribute of an HTTP context holding the {@link Tags} of the request. */
+    public static final String TAGS_ATTRIBUTE = PluginMetrics.class.getName() + ".tags";
+
+    public static final String HTTP_REQUESTS = "http.requests";
+    public static final String HTTP_FAILURES = "http.failures";
+    public static final String HTTP_RETRIES = "http.retries";
+    public static final String HTTP_BYTES = "http.bytes";
+    public static final String HTTP_NOT_MODIFIED = "http.notModified";
+    public static final String PARSE = "parse";
+    public static final String PAGES = "pages";
+    public static final String CONNECTOR_RESULTS = "connector.results";
+    public static final String PROCESS_RESULTS = "process.results";
+    public static final String CACHE_HIT = "cache.hit";
+    public static final String CACHE_STALE = "cache.stale";
+    public static final String CACHE_SNAPSHOT = "cache.snapshot";
+    public static final String CACHE_MISS = "cache.miss";
+    public static final String INDEX_HIT = "index.hit";
+
+    private static final String PREFIX = "artifact-repository-parameter";
+    private static final Map<MetricKey, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<MetricKey, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static volatile Reporter reporter;
+
+    /** Run the given action and record its duration in the timer of the given name. */
+    public static <T> T time(@Nonnull String name, @Nonnull Tags tags, @Nonnull Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(name, tags, System.nanoTime() - start);
+        }
+    }
+
+    /** Record a duration in the timer of the given name. */
+    public static void record(@Nonnull String name, @Nonnull Tags tags, long nanos) {
+        MetricKey key = new MetricKey(name, tags);
+        TIMERS.computeIfAbsent(key, k -> new Timer()).update(nanos);
+        getReporter().record(key.getMetricName(), nanos);
+    }
+
+    /** Increment the counter of the given name by one. */
+    public static void count(@Nonnull String name, @Nonnull Tags tags) {
+        count(name, tags, 1);
+    }
+
+    /** Increment the counter of the given name. */
+    public static void count(@Nonnull String name, @Nonnull Tags tags, long amount) {
+        if (amount <= 0) {
+            return;
+        }
+
+        MetricKey key = new MetricKey(name, tags);
+        COUNTERS.computeIfAbsent(key, k -> new LongAdder()).add(amount);
+        getReporter().count(key.getMetricName(), amount);
+    }
+
+    /**
+     * Returns the tags stored in the given HTTP context or tags containing only the server of the
+     * given URL if there are none.
+     */
+    @Nonnull
+    public static Tags getTags(@Nonnull HttpContext context, @Nonnull String url) {
+        Object tags = context.getAttribute(TAGS_ATTRIBUTE);
+        return tags instanceof Tags ? (Tags) tags : Tags.of(url);
+    }
+
+    /**
+     * Returns a snapshot of all metrics ordered by name. Timers provide their count, total and max.
+     * duration in milliseconds, counters their value.
+     */
+    public static Map<String, Map<String, Long>> snapshot() {
+        Map<String, Map<String, Long>> result = new TreeMap<>();
+        TIMERS.forEach((key, timer) -> result.put(key.getMetricName(), timer.snapshot()));
+        COUNTERS.forEach((key, counter) -> result.put(key.getMetricName(), Map.of("count", counter.sum())));
+        return result;
+    }
+
+    /** Reset all metrics collected by the plugin itself. Metrics reported to the Metrics plugin are kept. */
+    public static void reset() {
+        TIMERS.clear();
+        COUNTERS.clear();
+    }
+
+    /** Returns whether metrics are reported to the registry of the Metrics plugin. */
+    public static boolean isMetricsPluginActive() {
+        return getReporter() instanceof MetricsPluginReporter;
+    }
+
+    /**
+     * The Metrics plugin is an optional dependency, hence its classes are only touched if it is
+     * installed and enabled.
+     */
+    private static Reporter getReporter() {
+        Reporter current = reporter;
+        if (current != null) {
+            return current;
+        }
+
+        current = Reporter.NONE;
+        Jenkins jenkins = Jenkins.getInstanceOrNull();
+        PluginWrapper metricsPlugin = jenkins == null ? null : jenkins.getPluginManager().getPlugin("metrics");
+        if (metricsPlugin != null && metricsPlugin.isActive()) {
+            try {
+                current = new MetricsPluginReporter();
+            } catch (LinkageError | RuntimeException e) {
+                log.log(Level.FINE, "The Metrics plugin is not usable, report metrics internally only", e);
+            }
+        }
+        // only cache the decision once Jenkins is up, the plugin may not be loaded yet before
+        if (jenkins != null) {
+            reporter = current;
+        }
+        return current;
+    }
+
+    /** The tags of a metric. Values that are not known are set to <code>-</code>. */
+    @Value
+    public static class Tags {
+        String serverType;
+        String server;
+        String paramType;
+
+        /** Returns the tags of the given build definition. */
+        public static Tags of(@Nonnull ArtifactRepoParamDefinition definition) {
+            return new Tags(
+                    tag(definition.getServerType()),
+                    tag(PluginHelper.getServerName(StringUtils.defaultString(definition.getServerUrl()))),
+                    tag(definition.getParamType()));
+        }
+
+        /** Returns the tags of the given query. */
+        public static Tags of(@Nonnull QueryKey key) {
+            return new Tags(
+                    tag(key.getServerType()),
+                    tag(PluginHelper.getServerName(StringUtils.defaultString(key.getConnection().getServerUrl()))),
+                    tag(key.getParamType()));
+        }
+
+        /** Returns tags that only contain the server of the given URL. */
+        public static Tags of(@Nonnull String url) {
+            return new Tags("-", tag(PluginHelper.getServerName(url)), "-");
+        }
+
+        private static String tag(@CheckForNull String value) {
+            return StringUtils.isBlank(value) ? "-" : value.trim();
+        }
+    }
+
+    @Value
+    private static class MetricKey {
+        String name;
+        Tags tags;
+
+        /** Dots within the tags are replaced since they separate the parts of a metric name. */
+        private String getMetricName() {
+            return String.join(
+                    ".",
+                    PREFIX,
+                    name,
+                    tags.getServerType().replace('.', '_'),
+                    tags.getServer().replace('.', '_'),
+                    tags.getParamType().replace('.', '_'));
+        }
+    }
+
+    private static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private void update(long nanos) {
+            count.increment();
+            total.add(nanos);
+            max.accumulate(nanos);
+        }
+
+        private Map<String, Long> snapshot() {
+            return Map.of(
+                    "count", count.sum(),
+                    "totalMillis", total.sum() / 1_000_000,
+                    "maxMillis", max.get() / 1_000_000);
+        }
+    }
+
+    private interface Reporter {
+        Reporter NONE = new Reporter() {
+            @Override
+            public void record(String name, long nanos) {}
+
+            @Override
+            public void count(String name, long amount) {}
+        };
+
+        void record(String name, long nanos);
+
+        void count(String name, long amount);
+    }
+
+    /** Reports to the registry of the Metrics plugin. Must only be loaded if the plugin is active. */
+    private static final class MetricsPluginReporter implements Reporter {
+
+        private MetricsPluginReporter() {
+            // fail early if the registry is not available
+            Metrics.metricRegistry();
+        }
+
+        @Override
+        public void record(String name, long nanos) {
+            Metrics.metricRegistry().timer(name).update(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void count(String name, long amount) {
+            Metrics.metricRegistry().counter(name).inc(amount);
+        }
+    }
+}
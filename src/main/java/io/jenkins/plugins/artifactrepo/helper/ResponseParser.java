@@ -0,0 +1,16 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import javax.annotation.Nonnull;
+import org.apache.http.HttpResponse;
+
+/**
+ * A parser that needs the return code or headers of an HTTP response along with its payload, e.g.
+ * to follow pagination links. The payload is consumed directly from the stream.
+ */
+@FunctionalInterface
+public interface ResponseParser<T> {
+
+    T parse(@Nonnull HttpResponse response, @Nonnull InputStream payload) throws IOException;
+}
@@ -0,0 +1,188 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import io.jenkins.plugins.artifactrepo.model.QueryKey;
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import javax.annotation.Nonnull;
+import jenkins.util.SystemProperties;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.java.Log;
+
+/**
+ * A size bounded LRU cache for the raw results returned by the connectors. Entries younger than the
+ * configured TTL are served as they are. Older entries are still served for a while but trigger an
+ * asynchronous refresh so that the user does not need to wait for the repository to answer.
+ *
+ * <p>The cached lists and their entries are immutable and shared between all callers. Concurrent
+ * loads of the same query are coalesced by {@link SingleFlight}.
+ *
+ * <p>Queries that are not cached in memory, e.g. after a restart, are served from the {@link
+ * SnapshotStore} if possible while the results are requested from the repository in the
+ * background.
+ *
+ * <p>While the {@link CircuitBreaker} of a server is open, cached results are served regardless of
+ * their age.
+ */
+@Log
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ResultCache {
+
+    private static final String PREFIX = ResultCache.class.getName();
+    private static final long TTL = SystemProperties.getLong(PREFIX + ".ttlSeconds", 60L);
+    private static final long MAX_STALE = SystemProperties.getLong(PREFIX + ".maxStaleSeconds", 600L);
+    private static final int MAX_ENTRIES = SystemProperties.getInteger(PREFIX + ".maxEntries", 500);
+    private static final int REFRESH_THREADS = SystemProperties.getInteger(PREFIX + ".refreshThreads", 2);
+
+    private static final Map<QueryKey, CacheEntry> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<QueryKey, CacheEntry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private static final Set<QueryKey> REFRESHING = ConcurrentHashMap.newKeySet();
+    private static final ExecutorService REFRESHER = Executors.newFixedThreadPool(
+            REFRESH_THREADS, new NamingThreadFactory(new DaemonThreadFactory(), "ArtifactRepoParam.ResultCache"));
+    // replaced by tests to control the age of the entries
+    static LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * Get the results for the given query. If no usable entry is cached the loader is called on the
+     * current thread and its result is cached. If the cached entry is expired but not yet too old the
+     * cached results are returned right away and the loader is called in the background.
+     *
+     * @param key The query the results belong to.
+     * @param timeout Max. seconds to wait for a load of the same query that is already running, see
+     *     {@link SingleFlight#get(QueryKey, int, Supplier)}.
+     * @param loader A function requesting the results from the repository instance.
+     * @return An immutable list of results.
+     */
+    public static List<ResultEntry> get(
+            @Nonnull QueryKey key, int timeout, @Nonnull Supplier<List<ResultEntry>> loader) {
+        if (TTL <= 0) {
+            return SingleFlight.get(key, timeout, loader);
+        }
+
+        CacheEntry entry;
+        synchronized (CACHE) {
+            entry = CACHE.get(key);
+        }
+
+        PluginMetrics.Tags tags = PluginMetrics.Tags.of(key);
+        long age = entry == null ? Long.MAX_VALUE : entry.getAge();
+        if (age <= TimeUnit.SECONDS.toMillis(TTL)) {
+            PluginMetrics.count(PluginMetrics.CACHE_HIT, tags);
+            return entry.getResults();
+        }
+        if (age <= TimeUnit.SECONDS.toMillis(Math.max(TTL, MAX_STALE)) || entry != null && entry.isServable()) {
+            PluginMetrics.count(PluginMetrics.CACHE_STALE, tags);
+            refresh(key, timeout, loader);
+            return entry.getResults();
+        }
+
+        SnapshotStore.Snapshot snapshot = entry == null ? SnapshotStore.load(key) : null;
+        if (snapshot != null) {
+            PluginMetrics.count(PluginMetrics.CACHE_SNAPSHOT, tags);
+            // cached with its real age, it is served from memory until the refresh succeeded or it expires
+            synchronized (CACHE) {
+                CACHE.put(key, new CacheEntry(snapshot.getResults(), snapshot.getCreated(), true));
+            }
+            refresh(key, timeout, loader);
+            return snapshot.getResults();
+        }
+
+        PluginMetrics.count(PluginMetrics.CACHE_MISS, tags);
+        try {
+            return load(key, timeout, loader);
+        } catch (CircuitBreaker.OpenException e) {
+            // the server keeps failing, the last known results are better than none no matter how old
+            if (entry != null) {
+                return entry.getResults();
+            }
+            throw e;
+        }
+    }
+
+    /** Remove all cached entries. */
+    public static void clear() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    private static List<ResultEntry> load(
+            @Nonnull QueryKey key, int timeout, @Nonnull Supplier<List<ResultEntry>> loader) {
+        List<ResultEntry> results = SingleFlight.get(key, timeout, loader);
+        synchronized (CACHE) {
+            CACHE.put(key, new CacheEntry(results, clock.getAsLong(), false));
+        }
+        SnapshotStore.save(key, results);
+        return results;
+    }
+
+    /** Refresh the cache entry in the background unless a refresh for the same key is running. */
+    private static void refresh(@Nonnull QueryKey key, int timeout, @Nonnull Supplier<List<ResultEntry>> loader) {
+        if (!REFRESHING.add(key)) {
+            return;
+        }
+
+        try {
+            REFRESHER.execute(() -> {
+                try {
+                    load(key, timeout, loader);
+                } catch (CircuitBreaker.OpenException e) {
+                    log.log(Level.FINE, "Skipped refresh of cached results, the server keeps failing", e);
+                } catch (Exception e) {
+                    log.log(Level.WARNING, "Failed to refresh cached results, stale results are kept", e);
+                } finally {
+                    REFRESHING.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            REFRESHING.remove(key);
+            log.log(Level.FINE, "Background refresh was rejected", e);
+        }
+    }
+
+    private static final class CacheEntry {
+        private final List<ResultEntry> results;
+        private final long created;
+        private final boolean snapshot;
+
+        private CacheEntry(List<ResultEntry> results, long created, boolean snapshot) {
+            this.results = results;
+            this.created = created;
+            this.snapshot = snapshot;
+        }
+
+        private List<ResultEntry> getResults() {
+            return results;
+        }
+
+        private long getAge() {
+            return clock.getAsLong() - created;
+        }
+
+        /**
+         * Entries read from a snapshot are usually older than the max. stale time. They are served
+         * as long as the snapshot itself would be, so that the snapshot is not read again while
+         * the refresh is running.
+         */
+        private boolean isServable() {
+            return snapshot && !SnapshotStore.isExpired(created);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import io.jenkins.plugins.artifactrepo.Messages;
+import io.jenkins.plugins.artifactrepo.model.QueryKey;
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Coalesces identical queries that run at the same time. The first caller of a query requests the
+ * results from the repository, every other caller asking for the same query while the request is
+ * still running waits for and receives the very same result instead of sending its own request.
+ *
+ * <p>Waiting callers wait at most as long as they would have waited for their own request. Nothing
+ * is kept once the request has finished, caching results is up to {@link ResultCache}.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SingleFlight {
+
+    private static final Map<QueryKey, CompletableFuture<List<ResultEntry>>> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    /**
+     * Get the results for the given query either by calling the loader or by joining a request for
+     * the same query that is already running. If the request fails all waiting callers receive the
+     * same exception.
+     *
+     * @param key The query the results belong to.
+     * @param timeout Max. seconds to wait for a running request or 0 to use the default of the
+     *     {@link ConnectorExecutor}.
+     * @param loader A function requesting the results from the repository instance.
+     * @return An immutable list of results.
+     * @throws ConnectorExecutor.RejectedException If the running request did not finish in time.
+     */
+    public static List<ResultEntry> get(
+            @Nonnull QueryKey key, int timeout, @Nonnull Supplier<List<ResultEntry>> loader) {
+        CompletableFuture<List<ResultEntry>> own = new CompletableFuture<>();
+        CompletableFuture<List<ResultEntry>> running = IN_FLIGHT.putIfAbsent(key, own);
+        if (running != null) {
+            return await(running, key, ConnectorExecutor.getWaitTimeout(timeout));
+        }
+
+        try {
+            List<ResultEntry> results = List.copyOf(loader.get());
+            own.complete(results);
+            return results;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            IN_FLIGHT.remove(key, own);
+        }
+    }
+
+    private static List<ResultEntry> await(
+            @Nonnull CompletableFuture<List<ResultEntry>> running, @Nonnull QueryKey key, long timeout) {
+        String server = PluginHelper.getServerName(key.getConnection().getServerUrl());
+        try {
+            return timeout > 0 ? running.get(timeout, TimeUnit.SECONDS) : running.get();
+        } catch (TimeoutException e) {
+            // the running request is left alone, it belongs to another caller
+            throw new ConnectorExecutor.RejectedException(Messages.error_serverTimeout(server, timeout), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectorExecutor.RejectedException(Messages.error_serverTimeout(server, timeout), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
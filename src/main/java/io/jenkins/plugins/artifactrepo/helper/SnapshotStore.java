@@ -0,0 +1,206 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+import io.jenkins.plugins.artifactrepo.model.QueryKey;
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.java.Log;
+
+/**
+ * Persists the last successful result of every query in <code>JENKINS_HOME</code>. After a restart
+ * or while a repository is not reachable the stored results can be displayed right away instead of
+ * an error or an empty parameter.
+ *
+ * <p>Every query is stored in its own compressed file which is only read once the query is
+ * requested. Snapshots older than the configured max. age are neither used nor kept.
+ */
+@Log
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SnapshotStore {
+
+    private static final long MAX_AGE =
+            SystemProperties.getLong(SnapshotStore.class.getName() + ".maxAgeSeconds", 86400L);
+    private static final String DIRECTORY = "artifact-repository-parameter/snapshots";
+    private static final String SUFFIX = ".snapshot";
+    private static final int VERSION = 1;
+
+    // replaced by tests to control the age of the snapshots and to run without Jenkins
+    static LongSupplier clock = System::currentTimeMillis;
+    static Supplier<Path> location = () -> new File(Jenkins.get().getRootDir(), DIRECTORY).toPath();
+
+    /** Returns whether snapshots are enabled at all. */
+    public static boolean isEnabled() {
+        return MAX_AGE > 0;
+    }
+
+    /**
+     * Read the snapshot of the given query from disk.
+     *
+     * @return The snapshot or null if there is none or it is too old to be used.
+     */
+    @CheckForNull
+    public static Snapshot load(@Nonnull QueryKey key) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        Path file = getFile(key);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != VERSION || !key.toString().equals(in.readUTF())) {
+                return null;
+            }
+
+            long created = in.readLong();
+            if (isExpired(created)) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+
+            int size = in.readInt();
+            List<ResultEntry> results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                results.add(new ResultEntry(in.readUTF(), in.readUTF()));
+            }
+            return new Snapshot(created, List.copyOf(results));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.log(Level.FINE, "Failed to read result snapshot " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Write the results of the given query to disk. Writing is done in the background and the file
+     * is replaced atomically so a concurrent read never sees a partially written snapshot.
+     */
+    public static void save(@Nonnull QueryKey key, @Nonnull List<ResultEntry> results) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        long created = clock.getAsLong();
+        try {
+            Timer.get().execute(() -> write(key, results, created));
+        } catch (RejectedExecutionException e) {
+            log.log(Level.FINE, "Writing the result snapshot was rejected", e);
+        }
+    }
+
+    private static void write(@Nonnull QueryKey key, @Nonnull List<ResultEntry> results, long created) {
+        Path file = getFile(key);
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), "snapshot", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                out.writeInt(VERSION);
+                out.writeUTF(key.toString());
+                out.writeLong(created);
+                out.writeInt(results.size());
+                for (ResultEntry entry : results) {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            log.log(Level.WARNING, "Failed to write result snapshot " + file, e);
+            deleteQuietly(temp);
+        }
+    }
+
+    /** Delete all snapshots that are too old to be used. */
+    static void deleteExpired() throws IOException {
+        Path directory = getDirectory();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> isExpired(file.toFile().lastModified())).forEach(SnapshotStore::deleteQuietly);
+        }
+    }
+
+    /** Returns whether results received at the given time are too old to be served anymore. */
+    static boolean isExpired(long created) {
+        return clock.getAsLong() - created > TimeUnit.SECONDS.toMillis(MAX_AGE);
+    }
+
+    private static Path getDirectory() {
+        return location.get();
+    }
+
+    private static Path getFile(@Nonnull QueryKey key) {
+        return getDirectory().resolve(Util.getDigestOf(key.toString()) + SUFFIX);
+    }
+
+    private static void deleteQuietly(@CheckForNull Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.log(Level.FINE, "Failed to delete " + file, e);
+        }
+    }
+
+    /** The results of a query along with the time they were received. */
+    @Value
+    public static class Snapshot {
+        long created;
+        List<ResultEntry> results;
+    }
+
+    /** Periodically remove snapshots of queries that have not been requested for a long time. */
+    @Extension
+    public static class Cleanup extends AsyncPeriodicWork {
+
+        public Cleanup() {
+            super("Artifact Repository Parameter snapshot cleanup");
+        }
+
+        @Override
+        public long getRecurrencePeriod() {
+            return TimeUnit.HOURS.toMillis(1);
+        }
+
+        @Override
+        protected void execute(TaskListener listener) throws IOException {
+            deleteExpired();
+        }
+    }
+}
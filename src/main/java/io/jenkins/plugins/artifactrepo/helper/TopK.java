@@ -0,0 +1,88 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+import javax.annotation.Nonnull;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Selects the first k elements of a stream in the order of a given comparator without sorting the
+ * whole stream. Only k candidates are kept at any time in a bounded heap which results in O(n log k)
+ * time and O(k) memory.
+ *
+ * <p>The result is the same as <code>stream.sorted(comparator).limit(k)</code>, i.e. elements that
+ * are equal according to the comparator keep their encounter order.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TopK {
+
+    /** Returns a collector that collects the first k elements in the order of the comparator. */
+    public static <T> Collector<T, ?, List<T>> collector(int k, @Nonnull Comparator<? super T> comparator) {
+        return Collector.of(
+                () -> new Accumulator<T>(k, comparator),
+                Accumulator::add,
+                Accumulator::merge,
+                Accumulator::toList);
+    }
+
+    private static final class Accumulator<T> {
+        private final int k;
+        private final Comparator<Candidate<T>> order;
+        private final PriorityQueue<Candidate<T>> heap;
+        private long index = 0;
+
+        private Accumulator(int k, Comparator<? super T> comparator) {
+            this.k = k;
+            this.order = Comparator.<Candidate<T>, T>comparing(c -> c.element, comparator)
+                    .thenComparingLong(c -> c.index);
+            // the head of the heap is the worst candidate so it can be replaced quickly
+            this.heap = new PriorityQueue<>(Math.max(1, Math.min(k, 1024)), order.reversed());
+        }
+
+        private void add(T element) {
+            offer(new Candidate<>(element, index++));
+        }
+
+        private void offer(Candidate<T> candidate) {
+            if (k <= 0) {
+                return;
+            }
+            if (heap.size() < k) {
+                heap.add(candidate);
+            } else if (order.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        private Accumulator<T> merge(Accumulator<T> other) {
+            long offset = index;
+            other.heap.forEach(c -> offer(new Candidate<>(c.element, c.index + offset)));
+            index += other.index;
+            return this;
+        }
+
+        private List<T> toList() {
+            List<Candidate<T>> candidates = new ArrayList<>(heap);
+            candidates.sort(order);
+
+            List<T> result = new ArrayList<>(candidates.size());
+            candidates.forEach(c -> result.add(c.element));
+            return result;
+        }
+    }
+
+    private static final class Candidate<T> {
+        private final T element;
+        private final long index;
+
+        private Candidate(T element, long index) {
+            this.element = element;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import io.jenkins.plugins.artifactrepo.model.QueryKey;
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.util.SystemProperties;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A size bounded LRU cache for results of requests that support conditional requests. Along with
+ * the parsed results the validators (ETag and Last-Modified) of the response are stored, so the
+ * next request for the same query only needs to ask the server whether something has changed.
+ *
+ * <p>Unlike {@link ResultCache} entries never expire, they are only used if confirmed by the server.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ValidatorCache {
+
+    private static final int MAX_ENTRIES =
+            SystemProperties.getInteger(ValidatorCache.class.getName() + ".maxEntries", 200);
+
+    private static final Map<QueryKey, Entry> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<QueryKey, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /** Returns the cached entry of the given query or null if there is none. */
+    @CheckForNull
+    public static Entry get(@Nonnull QueryKey key) {
+        synchronized (CACHE) {
+            return CACHE.get(key);
+        }
+    }
+
+    /**
+     * Store the results of the given query. Results without any validator are not stored as they
+     * cannot be revalidated.
+     */
+    public static void put(
+            @Nonnull QueryKey key, String etag, String lastModified, @Nonnull List<ResultEntry> results) {
+        if (StringUtils.isAllBlank(etag, lastModified)) {
+            synchronized (CACHE) {
+                CACHE.remove(key);
+            }
+            return;
+        }
+
+        Entry entry = new Entry(etag, lastModified, List.copyOf(results));
+        synchronized (CACHE) {
+            CACHE.put(key, entry);
+        }
+    }
+
+    /** Remove all cached entries. */
+    public static void clear() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    /** The results of a request along with the validators of the response. */
+    @Value
+    public static class Entry {
+        String etag;
+        String lastModified;
+        List<ResultEntry> results;
+    }
+}
@@ -0,0 +1,61 @@
+package io.jenkins.plugins.artifactrepo.model;
+
+import hudson.model.Item;
+import io.jenkins.plugins.artifactrepo.ArtifactRepoParamDefinition;
+import io.jenkins.plugins.artifactrepo.helper.CredentialsCache;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import lombok.Value;
+
+/**
+ * An immutable bean storing the connection options of a build definition. Definitions with equal
+ * connection options share the same pooled HTTP client. Timeouts are given in seconds, 0 refers to
+ * the default timeouts of {@link io.jenkins.plugins.artifactrepo.helper.PluginHelper}.
+ *
+ * <p>The credentials context is part of the profile since the same credentials ID may refer to
+ * different credentials in different folders.
+ */
+@Value
+public class ConnectionProfile {
+    String serverUrl;
+    String credentialsId;
+    String proxyProtocol;
+    String proxyHost;
+    String proxyPort;
+    String proxyCredentialsId;
+    boolean ignoreCertificate;
+    String credentialsContext;
+    int connectTimeout;
+    int socketTimeout;
+
+    /**
+     * Create a connection profile out of the connection options of the given build definition.
+     * Credentials are resolved globally.
+     */
+    public static ConnectionProfile of(@Nonnull ArtifactRepoParamDefinition definition) {
+        return of(definition, null);
+    }
+
+    /**
+     * Create a connection profile out of the connection options of the given build definition.
+     * Credentials are resolved in the context of the given item.
+     */
+    public static ConnectionProfile of(@Nonnull ArtifactRepoParamDefinition definition, @CheckForNull Item item) {
+        ArtifactRepoParamProxy proxy = definition.getProxy();
+        return new ConnectionProfile(
+                definition.getServerUrl(),
+                definition.getCredentialsId(),
+                proxy.getProxyProtocol(),
+                proxy.getProxyHost(),
+                proxy.getProxyPort(),
+                proxy.getProxyCredentialsId(),
+                definition.isIgnoreCertificate(),
+                CredentialsCache.getContext(item),
+                definition.getConnectTimeout(),
+                definition.getSocketTimeout());
+    }
+
+    public ArtifactRepoParamProxy getProxy() {
+        return new ArtifactRepoParamProxy(proxyProtocol, proxyHost, proxyPort, proxyCredentialsId);
+    }
+}
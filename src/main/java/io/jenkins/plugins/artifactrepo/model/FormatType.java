@@ -1,11 +1,15 @@
 package io.jenkins.plugins.artifactrepo.model;
 
 import java.io.Serializable;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.ToString;
 import org.apache.commons.lang3.ArrayUtils;
 
 /** A bean that stores the selected options for format types of artifact repositories. */
+@EqualsAndHashCode
 @Getter
+@ToString
 public class FormatType implements Serializable {
     public static final long serialVersionUID = -6777952034460881203L;
     public static final FormatType DEFAULT = new FormatType(null);
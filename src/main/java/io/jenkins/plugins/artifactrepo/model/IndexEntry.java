@@ -0,0 +1,15 @@
+package io.jenkins.plugins.artifactrepo.model;
+
+import lombok.Value;
+
+/**
+ * An immutable bean representing an artifact stored in the artifact index. Along with the data of a
+ * {@link ResultEntry} it holds the name the artifact name of a parameter is matched against, e.g.
+ * the component name for Nexus or the file name for Artifactory.
+ */
+@Value
+public class IndexEntry {
+    String name;
+    String key;
+    String value;
+}
@@ -0,0 +1,16 @@
+package io.jenkins.plugins.artifactrepo.model;
+
+import java.util.List;
+import lombok.Value;
+
+/**
+ * An immutable bean with the changes of a repository since the last index synchronization. A full
+ * update contains all artifacts and replaces the index, otherwise the entries are added to it.
+ */
+@Value
+public class IndexUpdate {
+    List<IndexEntry> entries;
+    boolean full;
+    /** The position to continue the next synchronization from or null if only full updates are possible. */
+    String cursor;
+}
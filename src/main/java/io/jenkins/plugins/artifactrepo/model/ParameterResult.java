@@ -0,0 +1,76 @@
+package io.jenkins.plugins.artifactrepo.model;
+
+import java.util.BitSet;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Value;
+import lombok.With;
+
+/**
+ * An immutable bean holding the outcome of a single request for the entries of a build parameter,
+ * i.e. the entries to display in order, which of them are preselected, whether an error occurred
+ * and how long it took.
+ *
+ * <p>Each request gets its own result, so concurrent renders of the same parameter neither share
+ * nor modify any state. The entries themselves are shared with the caches and never copied.
+ */
+@Value
+public class ParameterResult {
+    List<ResultEntry> entries;
+
+    @Getter(AccessLevel.NONE)
+    BitSet selected;
+
+    @Getter(AccessLevel.NONE)
+    String submitValue;
+
+    boolean error;
+    String errorMessage;
+
+    @With
+    long durationMillis;
+
+    /**
+     * Create a successful result.
+     *
+     * @param entries The entries to display in order.
+     * @param selected The indexes of the preselected entries. The set must not be modified afterwards.
+     * @param submitValue The submit value option of the parameter, see {@link #getSubmitValue(int)}.
+     */
+    public static ParameterResult of(
+            @Nonnull List<ResultEntry> entries, @Nonnull BitSet selected, @CheckForNull String submitValue) {
+        return new ParameterResult(List.copyOf(entries), selected, submitValue, false, null, 0);
+    }
+
+    /**
+     * Create a failed result without any entries.
+     *
+     * @param errorMessage A message for the user or null to display a generic error.
+     */
+    public static ParameterResult error(@CheckForNull String errorMessage) {
+        return new ParameterResult(List.of(), new BitSet(0), null, true, errorMessage, 0);
+    }
+
+    /** Returns whether the entry at the given index is preselected. */
+    public boolean isSelected(int index) {
+        return selected.get(index);
+    }
+
+    /**
+     * Returns the value sent to the build for the entry at the given index. Depending on the submit
+     * value option this is the label, the path or both separated by a semicolon.
+     */
+    public String getSubmitValue(int index) {
+        ResultEntry entry = entries.get(index);
+        if ("label".equals(submitValue)) {
+            return entry.getKey();
+        }
+        if ("path".equals(submitValue)) {
+            return entry.getValue();
+        }
+        return entry.getKey() + ";" + entry.getValue();
+    }
+}
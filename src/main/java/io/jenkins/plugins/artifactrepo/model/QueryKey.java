@@ -0,0 +1,44 @@
+package io.jenkins.plugins.artifactrepo.model;
+
+import io.jenkins.plugins.artifactrepo.ArtifactRepoParamDefinition;
+import javax.annotation.Nonnull;
+import lombok.Value;
+
+/**
+ * An immutable bean identifying a query against a repository instance. It consists of the
+ * connection and API options of a build definition. Display options are not part of it as they do
+ * not change what is requested from the server.
+ */
+@Value
+public class QueryKey {
+    String serverType;
+    ConnectionProfile connection;
+    String paramType;
+    String artifactName;
+    String repoName;
+    String versionRegex;
+    RepoType repoType;
+    FormatType formatType;
+    String searchMode;
+    int limit;
+
+    /** Create a query key out of the connection and API options of the given build definition. */
+    public static QueryKey of(@Nonnull ArtifactRepoParamDefinition definition) {
+        return of(definition, ConnectionProfile.of(definition));
+    }
+
+    /** Create a query key for the given build definition requested with the given connection profile. */
+    public static QueryKey of(@Nonnull ArtifactRepoParamDefinition definition, @Nonnull ConnectionProfile connection) {
+        return new QueryKey(
+                definition.getServerType(),
+                connection,
+                definition.getParamType(),
+                definition.getArtifactName(),
+                definition.getRepoName(),
+                definition.getVersionRegex(),
+                definition.getRepoType(),
+                definition.getFormatType(),
+                definition.getSearchMode(),
+                Math.max(definition.getQueryLimit(), definition.getVersionLimit()));
+    }
+}
@@ -1,11 +1,15 @@
 package io.jenkins.plugins.artifactrepo.model;
 
 import java.io.Serializable;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.ToString;
 import org.apache.commons.lang3.ArrayUtils;
 
 /** A bean that stores the selected options repo types of the artifact repositories. */
+@EqualsAndHashCode
 @Getter
+@ToString
 public class RepoType implements Serializable {
     public static final long serialVersionUID = -7816034408993177660L;
     public static final RepoType DEFAULT = new RepoType(null);
@@ -3,22 +3,18 @@ package io.jenkins.plugins.artifactrepo.model;
 import java.util.Map;
 import javax.annotation.Nonnull;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Value;
 
-/** An object representing a result entry displayed on the index.jelly page. */
+/**
+ * An immutable bean representing a result entry returned by a repository. Entries are shared between
+ * caches and concurrent requests, everything that depends on the display options of a parameter is
+ * part of the {@link ParameterResult} instead.
+ */
+@Value
 @AllArgsConstructor
-@Data
 public class ResultEntry {
-    private final String key;
-    private final String value;
-    private String submitValue = "";
-    private boolean selected = false;
-
-    public ResultEntry(@Nonnull String key, @Nonnull String value) {
-        this.key = key;
-        this.value = value;
-        this.submitValue = key + ";" + value;
-    }
+    String key;
+    String value;
 
     public ResultEntry(@Nonnull Map.Entry<String, String> entry) {
         this(entry.getKey(), entry.getValue());
@@ -0,0 +1,55 @@
+/**
+ * Requests the results of an artifact repository parameter from the server once the build view
+ * was rendered and fills the select box of the parameter with them.
+ */
+Behaviour.specify("div.arpParameter", "arpParameter", 0, function (element) {
+    const url = element.dataset.fetchUrl + "?name=" + encodeURIComponent(element.dataset.name);
+
+    fetch(url, { headers: { "Accept": "application/json" } })
+        .then(response => {
+            if (!response.ok) {
+                throw new Error("Request failed with status " + response.status);
+            }
+            return response.json();
+        })
+        .then(json => showResults(element, json.data))
+        .catch(() => showState(element, "div.arpError"));
+});
+
+/**
+ * Adds the result entries as options to the select box or shows a message in case an error
+ * occurred or no entries were returned. Errors the user can act on, e.g. an overloaded
+ * repository server, replace the generic error message.
+ */
+function showResults(element, data) {
+    if (data.error) {
+        if (data.message) {
+            element.querySelector("div.arpError").textContent = data.message;
+        }
+        showState(element, "div.arpError");
+        return;
+    }
+    if (data.entries.length === 0) {
+        showState(element, "div.arpZeroResults");
+        return;
+    }
+
+    const select = element.querySelector("select");
+    data.entries.forEach(entry => {
+        const option = document.createElement("option");
+        option.value = entry.submitValue;
+        option.textContent = entry.key;
+        option.selected = entry.selected;
+        select.appendChild(option);
+    });
+
+    showState(element, "div.arpSelect");
+}
+
+/**
+ * Hides the loading indicator and displays the element identified by the given selector.
+ */
+function showState(element, selector) {
+    element.querySelector("div.arpLoading").style.display = "none";
+    element.querySelector(selector).style.display = "block";
+}
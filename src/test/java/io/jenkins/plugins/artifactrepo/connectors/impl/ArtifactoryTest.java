@@ -0,0 +1,105 @@
+package io.jenkins.plugins.artifactrepo.connectors.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.jenkins.plugins.artifactrepo.helper.PayloadParser;
+import io.jenkins.plugins.artifactrepo.model.IndexEntry;
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/** Tests the parsers of the Artifactory connector against recorded payloads in the test resources. */
+public class ArtifactoryTest {
+
+    private static final String BASE_URL = "http://localhost:8081/artifactory";
+    private static final String PATH = BASE_URL + "/libs-release-local/org/acme/app/";
+
+    @Test
+    public void searchResultsAreParsedAndUnknownFieldsSkipped() throws IOException {
+        List<ResultEntry> results = parse("search-artifact.json", Artifactory::parseArtifactsPayload);
+
+        // the last result is a folder without a file name
+        assertEquals(
+                List.of(
+                        new ResultEntry("app-1.0.jar", PATH + "1.0/app-1.0.jar"),
+                        new ResultEntry("app-1.1.jar", PATH + "1.1/app-1.1.jar")),
+                results);
+    }
+
+    @Test
+    public void emptySearchResult() throws IOException {
+        assertTrue(parse("search-artifact-empty.json", Artifactory::parseArtifactsPayload).isEmpty());
+    }
+
+    @Test
+    public void aqlResultsAreParsedAndUnknownFieldsSkipped() throws IOException {
+        List<ResultEntry> results = parse("aql.json", payload -> Artifactory.parseAqlPayload(payload, BASE_URL));
+
+        assertEquals(
+                List.of(
+                        new ResultEntry("app-1.1.jar", PATH + "1.1/app-1.1.jar"),
+                        new ResultEntry("app.jar", BASE_URL + "/libs-release-local/app.jar")),
+                results);
+    }
+
+    @Test
+    public void emptyAqlResult() throws IOException {
+        assertTrue(parse("aql-empty.json", payload -> Artifactory.parseAqlPayload(payload, BASE_URL)).isEmpty());
+    }
+
+    @Test
+    public void indexPageCountsAllItemsAndEndsWithTheNewestModification() throws IOException {
+        Artifactory.IndexPage page =
+                parse("aql-index.json", payload -> Artifactory.parseIndexPayload(payload, BASE_URL));
+
+        assertEquals(
+                List.of(
+                        new IndexEntry("app-1.0.jar", "app-1.0.jar", PATH + "1.0/app-1.0.jar"),
+                        new IndexEntry("app-1.1.jar", "app-1.1.jar", PATH + "1.1/app-1.1.jar")),
+                page.getEntries());
+        // the folder without a name is not indexed but still counts towards the page size
+        assertEquals(3, page.getItems());
+        assertEquals("2026-01-12T08:00:00.000Z", page.getCursor());
+    }
+
+    @Test
+    public void emptyIndexPageKeepsTheCursor() throws IOException {
+        Artifactory.IndexPage page =
+                parse("aql-empty.json", payload -> Artifactory.parseIndexPayload(payload, BASE_URL));
+
+        assertTrue(page.getEntries().isEmpty());
+        assertEquals(0, page.getItems());
+        assertNull(page.getCursor());
+    }
+
+    @Test
+    public void versionFoldersAreParsed() throws IOException {
+        Artifactory.VersionFolder folder = new Artifactory.VersionFolder(
+                BASE_URL + "/api/storage/libs-release-local/org/acme/app", PATH, "/app.jar");
+        Pattern versionPattern = Pattern.compile(".+/app/(\\d[^/]*)/app\\.jar");
+
+        List<ResultEntry> results = parse(
+                "storage-folder.json", payload -> Artifactory.parseFolderPayload(payload, folder, versionPattern));
+
+        // files and folders the version regex does not match are skipped
+        assertEquals(
+                List.of(
+                        new ResultEntry("1.0", PATH + "1.0"),
+                        new ResultEntry("1.1", PATH + "1.1"),
+                        new ResultEntry("2.0-SNAPSHOT", PATH + "2.0-SNAPSHOT")),
+                results);
+    }
+
+    private static <T> T parse(String fixture, PayloadParser<T> parser) throws IOException {
+        try (InputStream payload = ArtifactoryTest.class.getResourceAsStream("artifactory/" + fixture)) {
+            assertNotNull("Missing fixture " + fixture, payload);
+            return parser.parse(payload);
+        }
+    }
+}
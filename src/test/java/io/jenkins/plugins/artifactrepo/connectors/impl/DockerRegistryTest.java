@@ -0,0 +1,91 @@
+package io.jenkins.plugins.artifactrepo.connectors.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jenkins.plugins.artifactrepo.helper.PayloadParser;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+/** Tests the parsers of the Docker registry connector against recorded payloads in the test resources. */
+public class DockerRegistryTest {
+
+    @Test
+    public void catalogPageIsParsedAndUnknownFieldsSkipped() throws IOException {
+        HttpResponse response = createResponse();
+        response.addHeader("Link", "</v2/_catalog?last=library%2Falpine&n=100>; rel=\"next\"");
+
+        DockerRegistry.Page page =
+                parse("catalog.json", payload -> DockerRegistry.parsePage(response, payload, "repositories"));
+
+        // blank and null names are skipped
+        assertEquals(List.of("acme/app", "library/alpine"), page.getEntries());
+        assertEquals("/v2/_catalog?last=library%2Falpine&n=100", page.getNext());
+    }
+
+    @Test
+    public void tagsPageIsParsed() throws IOException {
+        DockerRegistry.Page page =
+                parse("tags.json", payload -> DockerRegistry.parsePage(createResponse(), payload, "tags"));
+
+        assertEquals(List.of("1.0", "1.1", "latest"), page.getEntries());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    public void imageWithoutTags() throws IOException {
+        DockerRegistry.Page page =
+                parse("tags-null.json", payload -> DockerRegistry.parsePage(createResponse(), payload, "tags"));
+
+        assertTrue(page.getEntries().isEmpty());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    public void tokenIsParsedAndUnknownFieldsSkipped() throws IOException {
+        long before = System.currentTimeMillis();
+        DockerRegistry.Token token = parse("token.json", DockerRegistry::parseTokenPayload);
+
+        assertEquals("registry-token", token.getValue());
+        // the expiry is shortened by a safety margin of 10 seconds
+        assertTrue(token.getExpiresAt() >= before + TimeUnit.SECONDS.toMillis(290));
+        assertTrue(token.getExpiresAt() <= System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(290));
+    }
+
+    @Test
+    public void oauthTokenLivesAtLeastTheDefaultLifetime() throws IOException {
+        long before = System.currentTimeMillis();
+        DockerRegistry.Token token = parse("token-oauth.json", DockerRegistry::parseTokenPayload);
+
+        assertEquals("oauth-token", token.getValue());
+        assertTrue(token.getExpiresAt() >= before + TimeUnit.SECONDS.toMillis(50));
+        assertTrue(token.isValid());
+    }
+
+    @Test
+    public void missingTokenIsRejected() {
+        assertThrows(
+                IllegalArgumentException.class, () -> parse("token-missing.json", DockerRegistry::parseTokenPayload));
+    }
+
+    private static HttpResponse createResponse() {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+    }
+
+    private static <T> T parse(String fixture, PayloadParser<T> parser) throws IOException {
+        try (InputStream payload = DockerRegistryTest.class.getResourceAsStream("docker/" + fixture)) {
+            assertNotNull("Missing fixture " + fixture, payload);
+            return parser.parse(payload);
+        }
+    }
+}
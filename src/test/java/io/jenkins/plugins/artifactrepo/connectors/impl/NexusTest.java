@@ -0,0 +1,104 @@
+package io.jenkins.plugins.artifactrepo.connectors.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import io.jenkins.plugins.artifactrepo.helper.PayloadParser;
+import io.jenkins.plugins.artifactrepo.model.IndexEntry;
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/** Tests the parsers of the Nexus connector against recorded payloads in the test resources. */
+public class NexusTest {
+
+    private static final String PATH = "http://localhost:8081/repository/maven-releases/org/acme/app/";
+    private static final String TOKEN = "88491cd1d185dd136f143f20c4e7d50c";
+
+    @Test
+    public void searchPageIsParsedAndUnknownFieldsSkipped() throws IOException {
+        Nexus.Page<ResultEntry> page = parse("search.json", Nexus::parseArtifactsPayload);
+
+        // checksum files are skipped
+        assertEquals(
+                List.of(
+                        new ResultEntry("app-1.0.pom", PATH + "1.0/app-1.0.pom"),
+                        new ResultEntry("app-1.0.jar", PATH + "1.0/app-1.0.jar"),
+                        new ResultEntry("app-1.1.jar", PATH + "1.1/app-1.1.jar")),
+                page.getEntries());
+        assertEquals(TOKEN, page.getToken());
+    }
+
+    @Test
+    public void lastSearchPageHasNoToken() throws IOException {
+        Nexus.Page<ResultEntry> page = parse("search-last-page.json", Nexus::parseArtifactsPayload);
+
+        assertEquals(List.of(new ResultEntry("app-0.9.jar", PATH + "0.9/app-0.9.jar")), page.getEntries());
+        assertNull(page.getToken());
+    }
+
+    @Test
+    public void emptySearchPage() throws IOException {
+        Nexus.Page<ResultEntry> page = parse("search-empty.json", Nexus::parseArtifactsPayload);
+
+        assertTrue(page.getEntries().isEmpty());
+        assertNull(page.getToken());
+    }
+
+    @Test
+    public void versionsAreTakenFromTheFirstMatchingAssetOfAComponent() throws IOException {
+        Pattern versionPattern = Pattern.compile(".+/app/([^/]+)/app-[^/]+\\.jar");
+
+        Nexus.Page<ResultEntry> page =
+                parse("search.json", payload -> Nexus.parseVersionsPayload(payload, versionPattern));
+
+        assertEquals(
+                List.of(
+                        new ResultEntry("1.0", PATH + "1.0/app-1.0.jar"),
+                        new ResultEntry("1.1", PATH + "1.1/app-1.1.jar")),
+                page.getEntries());
+        assertEquals(TOKEN, page.getToken());
+    }
+
+    @Test
+    public void emptyVersionsPage() throws IOException {
+        Nexus.Page<ResultEntry> page =
+                parse("search-empty.json", payload -> Nexus.parseVersionsPayload(payload, Pattern.compile("(.+)")));
+
+        assertTrue(page.getEntries().isEmpty());
+        assertNull(page.getToken());
+    }
+
+    @Test
+    public void componentsPageIsIndexedByComponentName() throws IOException {
+        Nexus.Page<IndexEntry> page = parse("search.json", Nexus::parseComponentsPayload);
+
+        assertEquals(
+                List.of(
+                        new IndexEntry("app", "app-1.0.pom", PATH + "1.0/app-1.0.pom"),
+                        new IndexEntry("app", "app-1.0.jar", PATH + "1.0/app-1.0.jar"),
+                        new IndexEntry("app", "app-1.1.jar", PATH + "1.1/app-1.1.jar")),
+                page.getEntries());
+        assertEquals(TOKEN, page.getToken());
+    }
+
+    @Test
+    public void emptyComponentsPage() throws IOException {
+        Nexus.Page<IndexEntry> page = parse("search-empty.json", Nexus::parseComponentsPayload);
+
+        assertTrue(page.getEntries().isEmpty());
+        assertNull(page.getToken());
+    }
+
+    private static <T> T parse(String fixture, PayloadParser<T> parser) throws IOException {
+        try (InputStream payload = NexusTest.class.getResourceAsStream("nexus/" + fixture)) {
+            assertNotNull("Missing fixture " + fixture, payload);
+            return parser.parse(payload);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Compares the {@link AlphanumComparator} with the original implementation of the algorithm that
+ * copied every chunk into a new string.
+ */
+public class AlphanumComparatorTest {
+
+    private static final String[] EDGE_CASES = {
+        "", "0", "00", "007", "7", "70", "a", "A", "a1", "1a", "a01", "a1b", "a1b2", "a10b", "abc", "abc1", "abc01",
+        "1.2.3", "1.10.0", "1.2.10", "v1.0", "v1.0-SNAPSHOT", "1-SNAPSHOT", "-1", "99999999999999999999", "9a9",
+        ":", "/", "0/", "a:",
+    };
+
+    private static final String ALPHABET = "0019a.Z-b:/";
+
+    private final AlphanumComparator comparator = new AlphanumComparator();
+
+    @Test
+    public void edgeCasesMatchTheOriginalAlgorithm() {
+        for (String s1 : EDGE_CASES) {
+            for (String s2 : EDGE_CASES) {
+                assertSameResult(s1, s2);
+            }
+        }
+    }
+
+    @Test
+    public void randomStringsMatchTheOriginalAlgorithm() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            String s1 = randomString(random);
+            // similar strings take the deeper paths of the comparison more often
+            String s2 = random.nextBoolean() ? mutate(s1, random) : randomString(random);
+            assertSameResult(s1, s2);
+        }
+    }
+
+    @Test
+    public void numbersAreSortedNumerically() {
+        assertTrue(comparator.compare("1.2.9", "1.2.10") < 0);
+        assertTrue(comparator.compare("a10", "a9") > 0);
+        assertTrue(comparator.compare("007", "7") > 0);
+        assertTrue(comparator.compare("abc", "abc1") < 0);
+        assertEquals(0, comparator.compare(null, "a"));
+        assertEquals(0, comparator.compare("a", null));
+    }
+
+    private void assertSameResult(String s1, String s2) {
+        assertEquals("\"" + s1 + "\" vs. \"" + s2 + "\"", original(s1, s2), comparator.compare(s1, s2));
+    }
+
+    private static String randomString(Random random) {
+        StringBuilder s = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            s.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return s.toString();
+    }
+
+    private static String mutate(String s, Random random) {
+        if (s.isEmpty()) {
+            return randomString(random);
+        }
+        StringBuilder mutated = new StringBuilder(s);
+        int index = random.nextInt(s.length() + 1);
+        switch (random.nextInt(3)) {
+            case 0:
+                mutated.insert(index, ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                break;
+            case 1:
+                mutated.deleteCharAt(Math.min(index, s.length() - 1));
+                break;
+            default:
+                mutated.setCharAt(Math.min(index, s.length() - 1), ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return mutated.toString();
+    }
+
+    /** The comparison as implemented originally by David Koelle. */
+    private static int original(String s1, String s2) {
+        if ((s1 == null) || (s2 == null)) {
+            return 0;
+        }
+
+        int thisMarker = 0;
+        int thatMarker = 0;
+        int s1Length = s1.length();
+        int s2Length = s2.length();
+
+        while (thisMarker < s1Length && thatMarker < s2Length) {
+            String thisChunk = getChunk(s1, s1Length, thisMarker);
+            thisMarker += thisChunk.length();
+
+            String thatChunk = getChunk(s2, s2Length, thatMarker);
+            thatMarker += thatChunk.length();
+
+            int result = 0;
+            if (isDigit(thisChunk.charAt(0)) && isDigit(thatChunk.charAt(0))) {
+                int thisChunkLength = thisChunk.length();
+                result = thisChunkLength - thatChunk.length();
+                if (result == 0) {
+                    for (int i = 0; i < thisChunkLength; i++) {
+                        result = thisChunk.charAt(i) - thatChunk.charAt(i);
+                        if (result != 0) {
+                            return result;
+                        }
+                    }
+                }
+            } else {
+                result = thisChunk.compareTo(thatChunk);
+            }
+
+            if (result != 0) return result;
+        }
+
+        return s1Length - s2Length;
+    }
+
+    private static String getChunk(String s, int slength, int marker) {
+        StringBuilder chunk = new StringBuilder();
+        char c = s.charAt(marker);
+        chunk.append(c);
+        marker++;
+        while (marker < slength && isDigit(s.charAt(marker)) == isDigit(c)) {
+            chunk.append(s.charAt(marker));
+            marker++;
+        }
+        return chunk.toString();
+    }
+
+    private static boolean isDigit(char ch) {
+        return ((ch >= 48) && (ch <= 57));
+    }
+}
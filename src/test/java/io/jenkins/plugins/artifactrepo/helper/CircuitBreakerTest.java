@@ -0,0 +1,105 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+    private static final String URL = "http://repo.example.com:8081/service/rest/v1/search";
+    // defaults of CircuitBreaker.failureThreshold and CircuitBreaker.openSeconds
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long OPEN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Before
+    public void setUp() {
+        CircuitBreaker.reset();
+        CircuitBreaker.clock = now::get;
+    }
+
+    @After
+    public void tearDown() {
+        CircuitBreaker.reset();
+        CircuitBreaker.clock = System::currentTimeMillis;
+    }
+
+    @Test
+    public void closedOpenHalfOpenClosed() {
+        for (int i = 1; i < FAILURE_THRESHOLD; i++) {
+            CircuitBreaker.recordFailure(URL);
+            assertFalse(CircuitBreaker.check(URL));
+        }
+
+        CircuitBreaker.recordFailure(URL);
+        assertTrue(CircuitBreaker.isOpen(URL));
+        assertThrows(CircuitBreaker.OpenException.class, () -> CircuitBreaker.check(URL));
+
+        now.addAndGet(OPEN_MILLIS);
+        assertTrue("the first request is the trial", CircuitBreaker.check(URL));
+        assertThrows(CircuitBreaker.OpenException.class, () -> CircuitBreaker.check(URL));
+
+        CircuitBreaker.recordSuccess(URL);
+        assertFalse(CircuitBreaker.isOpen(URL));
+        assertFalse(CircuitBreaker.check(URL));
+    }
+
+    @Test
+    public void halfOpenOpen() {
+        open();
+        now.addAndGet(OPEN_MILLIS);
+        assertTrue(CircuitBreaker.check(URL));
+
+        CircuitBreaker.recordFailure(URL);
+        assertTrue(CircuitBreaker.isOpen(URL));
+        assertThrows(CircuitBreaker.OpenException.class, () -> CircuitBreaker.check(URL));
+
+        now.addAndGet(OPEN_MILLIS);
+        assertTrue("another trial once the open duration passed again", CircuitBreaker.check(URL));
+    }
+
+    @Test
+    public void releasedTrialIsGrantedAgain() {
+        open();
+        now.addAndGet(OPEN_MILLIS);
+        assertTrue(CircuitBreaker.check(URL));
+
+        CircuitBreaker.release(URL);
+        assertFalse(CircuitBreaker.isOpen(URL));
+        assertTrue(CircuitBreaker.check(URL));
+    }
+
+    @Test
+    public void successResetsFailures() {
+        for (int i = 1; i < FAILURE_THRESHOLD; i++) {
+            CircuitBreaker.recordFailure(URL);
+        }
+        CircuitBreaker.recordSuccess(URL);
+        CircuitBreaker.recordFailure(URL);
+
+        assertFalse(CircuitBreaker.isOpen(URL));
+        assertFalse(CircuitBreaker.check(URL));
+    }
+
+    @Test
+    public void circuitsAreTrackedPerServer() {
+        open();
+
+        assertFalse(CircuitBreaker.isOpen("http://other.example.com:8081/"));
+        assertFalse(CircuitBreaker.check("http://other.example.com:8081/"));
+    }
+
+    private void open() {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            CircuitBreaker.recordFailure(URL);
+        }
+        assertTrue(CircuitBreaker.isOpen(URL));
+    }
+}
@@ -0,0 +1,90 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConnectorExecutorTest {
+
+    static {
+        // only effective if no other test initialized the executor before
+        System.setProperty(ConnectorExecutor.class.getName() + ".threads", "4");
+        System.setProperty(ConnectorExecutor.class.getName() + ".virtualThreads", "false");
+    }
+
+    private ExecutorService callers;
+
+    @Before
+    public void setUp() {
+        callers = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void prefetchIsStartedIfAThreadIsIdle() {
+        assumeTrue(ConnectorExecutor.THREADS > 1);
+
+        String result = ConnectorExecutor.execute("http://idle.example.com", 5, () -> {
+            Optional<Future<String>> prefetch = ConnectorExecutor.submit("http://idle.example.com", () -> "prefetched");
+            assertTrue(prefetch.isPresent());
+            return get(prefetch.get());
+        });
+
+        assertEquals("prefetched", result);
+    }
+
+    @Test
+    public void saturatedPoolDoesNotStall() throws Exception {
+        int threads = ConnectorExecutor.THREADS;
+        CyclicBarrier allRunning = new CyclicBarrier(threads);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String serverUrl = "http://server" + i + ".example.com";
+            results.add(callers.submit(() -> ConnectorExecutor.execute(serverUrl, 10, () -> {
+                await(allRunning);
+                // every thread of the pool is busy, a queued prefetch would never start
+                Optional<Future<String>> prefetch = ConnectorExecutor.submit(serverUrl, () -> "prefetched");
+                return prefetch.map(ConnectorExecutorTest::get).orElse("inline");
+            })));
+        }
+
+        for (Future<String> result : results) {
+            // far below the timeout of the requests, a stalled prefetch would only end with it
+            result.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(0, ConnectorExecutor.getPending());
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String get(Future<String> future) {
+        try {
+            return future.get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
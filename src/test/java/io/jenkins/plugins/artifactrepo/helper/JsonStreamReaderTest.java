@@ -0,0 +1,112 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class JsonStreamReaderTest {
+
+    @Test
+    public void unknownMembersAreSkippedWithAllTheirContent() {
+        JsonStreamReader reader = reader("{\"skipped\": {\"items\": [1, {\"a\": \"]}\"}], \"b\": \"\\\"}\"},"
+                + " \"number\": -1.5e3, \"flag\": true, \"nothing\": null, \"list\": [[], {}],"
+                + " \"items\": [{\"id\": 1}, {\"id\": 2, \"extra\": {\"id\": 3}}], \"after\": \"x\"}");
+
+        List<Integer> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            names.add(name);
+            if ("items".equals(name)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    ids.add(reader.nextObject().getInt("id"));
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+
+        assertEquals(List.of("skipped", "number", "flag", "nothing", "list", "items", "after"), names);
+        assertEquals(List.of(1, 2), ids);
+    }
+
+    @Test
+    public void emptyObjectAndArrayHaveNoMembers() {
+        JsonStreamReader reader = reader(" {\n\t\"items\" : [ ] ,\"empty\":{ } } ");
+
+        reader.beginObject();
+        assertTrue(reader.hasNext());
+        assertEquals("items", reader.nextName());
+        reader.beginArray();
+        assertFalse(reader.hasNext());
+        assertTrue(reader.hasNext());
+        assertEquals("empty", reader.nextName());
+        reader.beginObject();
+        assertFalse(reader.hasNext());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void nextStringOnlyReturnsStrings() {
+        JsonStreamReader reader = reader("[\"text\", 42, null, false, {\"a\": \"b\"}, \"\"]");
+
+        List<String> values = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            values.add(reader.nextString());
+        }
+
+        assertEquals(6, values.size());
+        assertEquals("text", values.get(0));
+        assertNull(values.get(1));
+        assertNull(values.get(2));
+        assertNull(values.get(3));
+        assertNull(values.get(4));
+        assertEquals("", values.get(5));
+    }
+
+    @Test
+    public void nextObjectMaterializesTheWholeObject() {
+        JsonStreamReader reader = reader("[{\"a\": {\"b\": [1, 2]}, \"c\": \"\\u00e4\"}]");
+
+        reader.beginArray();
+        assertTrue(reader.hasNext());
+        JSONObject object = reader.nextObject();
+
+        assertEquals(2, object.getJSONObject("a").getJSONArray("b").length());
+        assertEquals("\u00e4", object.getString("c"));
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void unexpectedStructureIsRejected() {
+        assertThrows(JSONException.class, () -> reader("[]").beginObject());
+        assertThrows(JSONException.class, () -> reader("{}").beginArray());
+
+        JsonStreamReader array = reader("[\"text\"]");
+        array.beginArray();
+        assertTrue(array.hasNext());
+        assertThrows(JSONException.class, array::nextObject);
+
+        JsonStreamReader object = reader("{name: 1}");
+        object.beginObject();
+        assertTrue(object.hasNext());
+        assertThrows(JSONException.class, object::nextName);
+    }
+
+    private static JsonStreamReader reader(String json) {
+        return new JsonStreamReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,212 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the retry rules of {@link PluginHelper} against a local stub server. The defaults apply,
+ * i.e. 2 retries and a circuit breaker threshold of 5 failures.
+ */
+public class PluginHelperTest {
+
+    private static final PayloadParser<String> TO_STRING =
+            payload -> IOUtils.toString(payload, StandardCharsets.UTF_8);
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final Deque<Integer> statusCodes = new ArrayDeque<>();
+    private HttpServer server;
+    private CloseableHttpClient client;
+    private String url;
+
+    @Before
+    public void setUp() throws IOException {
+        CircuitBreaker.reset();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(nextStatusCode(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/test";
+        client = createClient(5000);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+        server.stop(0);
+        CircuitBreaker.reset();
+    }
+
+    @Test
+    public void getIsRetriedOnServiceUnavailable() {
+        respondWith(503, 200);
+
+        assertEquals("ok", get(url));
+        assertEquals(2, hits.get());
+        assertFalse(CircuitBreaker.isOpen(url));
+    }
+
+    @Test
+    public void getIsRetriedOnBadGatewayAndGatewayTimeout() {
+        respondWith(502, 504, 200);
+
+        assertEquals("ok", get(url));
+        assertEquals(3, hits.get());
+    }
+
+    @Test
+    public void getGivesUpAfterMaxRetries() {
+        respondWith(503);
+
+        assertThrows(IllegalArgumentException.class, () -> get(url));
+        assertEquals(3, hits.get());
+    }
+
+    @Test
+    public void getIsNotRetriedOnOtherStatusCodes() {
+        respondWith(500);
+        assertThrows(IllegalArgumentException.class, () -> get(url));
+        assertEquals(1, hits.get());
+
+        hits.set(0);
+        respondWith(404);
+        assertThrows(IllegalArgumentException.class, () -> get(url));
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    public void postIsNotRetried() {
+        respondWith(503);
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> PluginHelper.post(url, "query", client, HttpClientContext.create(), TO_STRING));
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    public void readTimeoutIsNotRetried() throws IOException {
+        server.createContext("/slow", exchange -> {
+            hits.incrementAndGet();
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        client.close();
+        client = createClient(200);
+
+        String slowUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/slow";
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> get(slowUrl));
+        assertTrue(e.getCause() instanceof SocketTimeoutException);
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    public void connectionFailureIsRetried() throws Exception {
+        // a server that closes every connection without sending a response
+        try (ServerSocket socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            Thread acceptor = new Thread(() -> {
+                while (!socket.isClosed()) {
+                    try (Socket connection = socket.accept()) {
+                        hits.incrementAndGet();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            String failingUrl = "http://127.0.0.1:" + socket.getLocalPort() + "/test";
+            assertThrows(IllegalArgumentException.class, () -> get(failingUrl));
+            assertEquals(3, hits.get());
+        }
+    }
+
+    @Test
+    public void everyAttemptIsRecordedByTheCircuitBreaker() {
+        respondWith(503);
+
+        // 3 failed attempts do not reach the threshold of 5
+        assertThrows(IllegalArgumentException.class, () -> get(url));
+        assertFalse(CircuitBreaker.isOpen(url));
+
+        // the 2nd attempt opens the circuit, hence the 3rd one is not sent anymore
+        assertThrows(CircuitBreaker.OpenException.class, () -> get(url));
+        assertEquals(5, hits.get());
+        assertTrue(CircuitBreaker.isOpen(url));
+    }
+
+    @Test
+    public void successfulAttemptResetsTheFailures() {
+        respondWith(503, 503, 200, 503, 503, 200);
+
+        assertEquals("ok", get(url));
+        assertEquals("ok", get(url));
+        assertEquals(6, hits.get());
+        assertFalse(CircuitBreaker.isOpen(url));
+    }
+
+    private String get(String target) {
+        return PluginHelper.get(target, client, HttpClientContext.create(), TO_STRING);
+    }
+
+    /** The stub responds with the given status codes in order, the last one is repeated. */
+    private void respondWith(Integer... codes) {
+        synchronized (statusCodes) {
+            statusCodes.clear();
+            statusCodes.addAll(Arrays.asList(codes));
+        }
+    }
+
+    private int nextStatusCode() {
+        synchronized (statusCodes) {
+            return statusCodes.size() > 1 ? statusCodes.poll() : statusCodes.getFirst();
+        }
+    }
+
+    private static CloseableHttpClient createClient(int socketTimeoutMillis) {
+        // retries of the client itself would hide the ones of the plugin
+        return HttpClients.custom()
+                .disableAutomaticRetries()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(1000)
+                        .setSocketTimeout(socketTimeoutMillis)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,223 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jenkins.plugins.artifactrepo.model.ConnectionProfile;
+import io.jenkins.plugins.artifactrepo.model.QueryKey;
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the ages at which {@link ResultCache} serves, refreshes or reloads results. The defaults
+ * apply, i.e. a TTL of 60 seconds, a max. stale time of 10 minutes and a max. snapshot age of one
+ * day.
+ */
+public class ResultCacheTest {
+
+    private static final long TTL = TimeUnit.SECONDS.toMillis(60);
+    private static final long MAX_STALE = TimeUnit.MINUTES.toMillis(10);
+    private static final long MAX_SNAPSHOT_AGE = TimeUnit.DAYS.toMillis(1);
+    private static final AtomicInteger QUERIES = new AtomicInteger();
+    private static final Supplier<Path> SNAPSHOT_LOCATION = SnapshotStore.location;
+
+    private static final List<ResultEntry> OLD = List.of(new ResultEntry("1.0", "1.0"));
+    private static final List<ResultEntry> NEW = List.of(new ResultEntry("1.0", "1.0"), new ResultEntry("1.1", "1.1"));
+
+    @Rule
+    public TemporaryFolder snapshots = new TemporaryFolder();
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final AtomicInteger loads = new AtomicInteger();
+    // every test uses its own query, a background refresh of a previous test cannot interfere
+    private final QueryKey key = new QueryKey(
+            "nexus",
+            new ConnectionProfile("http://localhost:8081", "", "", "", "", "", false, "", 0, 0, 0),
+            "version",
+            "artifact-" + QUERIES.incrementAndGet(),
+            "releases",
+            ".+",
+            null,
+            null,
+            "name",
+            0);
+
+    @Before
+    public void setUp() {
+        ResultCache.clear();
+        ResultCache.clock = now::get;
+        SnapshotStore.clock = now::get;
+        SnapshotStore.location = snapshots.getRoot()::toPath;
+    }
+
+    @After
+    public void tearDown() {
+        ResultCache.clear();
+        ResultCache.clock = System::currentTimeMillis;
+        SnapshotStore.clock = System::currentTimeMillis;
+        SnapshotStore.location = SNAPSHOT_LOCATION;
+    }
+
+    @Test
+    public void freshEntryIsServedFromTheCache() {
+        assertSame(OLD, get(() -> OLD));
+
+        now.addAndGet(TTL);
+        assertSame(OLD, get(() -> NEW));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void staleEntryIsServedWhileItIsRefreshed() throws Exception {
+        get(() -> OLD);
+        now.addAndGet(TTL + 1);
+
+        CountDownLatch refreshing = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        assertSame(OLD, get(() -> {
+            refreshing.countDown();
+            await(finish);
+            return NEW;
+        }));
+        assertTrue(refreshing.await(5, TimeUnit.SECONDS));
+
+        // a second refresh is not started while the first one is running
+        assertSame(OLD, get(() -> NEW));
+        finish.countDown();
+
+        assertSame(NEW, awaitResults(NEW));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void failedRefreshKeepsTheStaleEntry() throws Exception {
+        get(() -> OLD);
+        now.addAndGet(TTL + 1);
+
+        CountDownLatch refreshed = new CountDownLatch(1);
+        assertSame(OLD, get(() -> {
+            refreshed.countDown();
+            throw new IllegalStateException("refresh failed");
+        }));
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+
+        now.addAndGet(MAX_STALE - TTL - 2);
+        assertSame(OLD, get(() -> NEW));
+        assertSame(NEW, awaitResults(NEW));
+    }
+
+    @Test
+    public void expiredEntryIsLoadedAgain() {
+        get(() -> OLD);
+        now.addAndGet(MAX_STALE + 1);
+
+        assertSame(NEW, get(() -> NEW));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void failedLoadIsPassedToTheCaller() {
+        get(() -> OLD);
+        now.addAndGet(MAX_STALE + 1);
+
+        assertThrows(IllegalStateException.class, () -> get(() -> {
+            throw new IllegalStateException("load failed");
+        }));
+        // nothing is cached for a failed load
+        assertSame(NEW, get(() -> NEW));
+    }
+
+    @Test
+    public void expiredEntryIsServedWhileTheCircuitIsOpen() {
+        get(() -> OLD);
+        now.addAndGet(MAX_STALE + 1);
+
+        assertSame(OLD, get(() -> {
+            throw new CircuitBreaker.OpenException("open");
+        }));
+    }
+
+    @Test
+    public void openCircuitIsPassedToTheCallerWithoutAnEntry() {
+        assertThrows(CircuitBreaker.OpenException.class, () -> get(() -> {
+            throw new CircuitBreaker.OpenException("open");
+        }));
+    }
+
+    @Test
+    public void snapshotIsServedAfterARestart() throws Exception {
+        get(() -> OLD);
+        awaitSnapshot();
+        ResultCache.clear();
+        now.addAndGet(MAX_STALE + 1);
+
+        CountDownLatch refreshed = new CountDownLatch(1);
+        assertEquals(OLD, get(() -> {
+            refreshed.countDown();
+            return NEW;
+        }));
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+        assertSame(NEW, awaitResults(NEW));
+    }
+
+    @Test
+    public void expiredSnapshotIsNotServed() throws Exception {
+        get(() -> OLD);
+        awaitSnapshot();
+        ResultCache.clear();
+        now.addAndGet(MAX_SNAPSHOT_AGE + 1);
+
+        assertSame(NEW, get(() -> NEW));
+        assertEquals(2, loads.get());
+    }
+
+    private List<ResultEntry> get(Supplier<List<ResultEntry>> results) {
+        return ResultCache.get(key, 5, () -> {
+            loads.incrementAndGet();
+            return results.get();
+        });
+    }
+
+    /** Wait until the background refresh stored the expected results. */
+    private List<ResultEntry> awaitResults(List<ResultEntry> expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<ResultEntry> results = get(() -> expected);
+        while (results != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            results = get(() -> expected);
+        }
+        return results;
+    }
+
+    /** Snapshots are written in the background, wait until the one of the query is readable. */
+    private void awaitSnapshot() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (SnapshotStore.load(key) == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(SnapshotStore.load(key));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
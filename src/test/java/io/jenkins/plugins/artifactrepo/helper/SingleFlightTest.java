@@ -0,0 +1,156 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import io.jenkins.plugins.artifactrepo.model.ConnectionProfile;
+import io.jenkins.plugins.artifactrepo.model.QueryKey;
+import io.jenkins.plugins.artifactrepo.model.ResultEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+    private static final QueryKey KEY = new QueryKey(
+            "artifactory",
+            new ConnectionProfile("http://localhost:8081", "", "", "", "", "", false, "", 0, 0, 0),
+            "path",
+            "artifact",
+            "repo",
+            ".+",
+            null,
+            null,
+            "name",
+            0);
+    private static final List<ResultEntry> RESULTS = List.of(new ResultEntry("key", "value"));
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch finish = new CountDownLatch(1);
+    private final List<Thread> threads = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        finish.countDown();
+        threads.forEach(Thread::interrupt);
+    }
+
+    @Test
+    public void concurrentCallersShareOneLoad() throws Exception {
+        FutureTask<List<ResultEntry>> leader = start(() -> SingleFlight.get(KEY, 10, blockingLoader(() -> RESULTS)));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        List<FutureTask<List<ResultEntry>>> waiters = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            waiters.add(start(() -> SingleFlight.get(KEY, 10, blockingLoader(() -> RESULTS))));
+        }
+        awaitWaiting();
+        finish.countDown();
+
+        assertSame(RESULTS.get(0), leader.get(5, TimeUnit.SECONDS).get(0));
+        for (FutureTask<List<ResultEntry>> waiter : waiters) {
+            assertSame(leader.get(), waiter.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void failureOfTheLoadIsPassedToAllCallers() throws Exception {
+        IllegalStateException failure = new IllegalStateException("failed");
+        FutureTask<List<ResultEntry>> leader = start(() -> SingleFlight.get(KEY, 10, blockingLoader(() -> {
+            throw failure;
+        })));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        FutureTask<List<ResultEntry>> waiter = start(() -> SingleFlight.get(KEY, 10, blockingLoader(() -> RESULTS)));
+        awaitWaiting();
+        finish.countDown();
+
+        assertSame(failure, getFailure(leader));
+        assertSame(failure, getFailure(waiter));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void waitingIsBoundedByTheTimeout() throws Exception {
+        FutureTask<List<ResultEntry>> leader = start(() -> SingleFlight.get(KEY, 10, blockingLoader(() -> RESULTS)));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        assertThrows(
+                ConnectorExecutor.RejectedException.class,
+                () -> SingleFlight.get(KEY, 1, blockingLoader(() -> RESULTS)));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+        // the running load is not affected by the caller that gave up
+        finish.countDown();
+        assertEquals(RESULTS, leader.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void finishedLoadsAreNotKept() {
+        finish.countDown();
+
+        assertEquals(RESULTS, SingleFlight.get(KEY, 10, blockingLoader(() -> RESULTS)));
+        assertEquals(RESULTS, SingleFlight.get(KEY, 10, blockingLoader(() -> RESULTS)));
+        assertEquals(2, loads.get());
+
+        assertThrows(IllegalStateException.class, () -> SingleFlight.get(KEY, 10, blockingLoader(() -> {
+            throw new IllegalStateException("failed");
+        })));
+        assertEquals(RESULTS, SingleFlight.get(KEY, 10, blockingLoader(() -> RESULTS)));
+        assertEquals(4, loads.get());
+    }
+
+    /** Returns a loader that counts its calls and blocks until the test lets it finish. */
+    private Supplier<List<ResultEntry>> blockingLoader(Supplier<List<ResultEntry>> results) {
+        return () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                assertTrue(finish.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return results.get();
+        };
+    }
+
+    private <T> FutureTask<T> start(Callable<T> call) {
+        FutureTask<T> task = new FutureTask<>(call);
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+        return task;
+    }
+
+    /** Wait until all callers but the first one, which is loading, wait for the running load. */
+    private void awaitWaiting() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        for (Thread thread : threads.subList(1, threads.size())) {
+            while (thread.getState() != Thread.State.TIMED_WAITING) {
+                assertTrue("Caller does not wait for the running load", System.nanoTime() < deadline);
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static Throwable getFailure(FutureTask<?> task) throws Exception {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> task.get(5, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+}
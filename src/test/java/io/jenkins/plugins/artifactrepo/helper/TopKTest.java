@@ -0,0 +1,110 @@
+package io.jenkins.plugins.artifactrepo.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+/**
+ * Verifies that {@link TopK} returns the same elements in the same order as sorting the whole
+ * stream and truncating it afterwards. The elements have no equals method, hence the results are
+ * compared by identity and elements with equal keys must keep their encounter order.
+ */
+public class TopKTest {
+
+    private static final Comparator<Element> BY_KEY = Comparator.comparing(e -> e.key, new AlphanumComparator());
+
+    @Test
+    public void equalKeysKeepTheirEncounterOrder() {
+        List<Element> elements = elements(50, 3, new Random(1));
+
+        for (int k : new int[] {1, 2, 10, 49}) {
+            assertSameAsSortAndLimit(elements, k, BY_KEY);
+        }
+    }
+
+    @Test
+    public void zeroReturnsAnEmptyList() {
+        List<Element> elements = elements(10, 5, new Random(2));
+
+        assertTrue(elements.stream().collect(TopK.collector(0, BY_KEY)).isEmpty());
+        assertSameAsSortAndLimit(elements, 0, BY_KEY);
+    }
+
+    @Test
+    public void atLeastAsManyAsElementsReturnsAllSorted() {
+        List<Element> elements = elements(20, 8, new Random(3));
+
+        assertSameAsSortAndLimit(elements, 20, BY_KEY);
+        assertSameAsSortAndLimit(elements, 21, BY_KEY);
+        assertSameAsSortAndLimit(elements, Integer.MAX_VALUE, BY_KEY);
+        assertSameAsSortAndLimit(new ArrayList<>(), 5, BY_KEY);
+    }
+
+    @Test
+    public void bothSortOrdersMatch() {
+        List<Element> elements = elements(100, 20, new Random(4));
+
+        for (int k : new int[] {1, 7, 50, 99, 100, 150}) {
+            assertSameAsSortAndLimit(elements, k, BY_KEY);
+            assertSameAsSortAndLimit(elements, k, BY_KEY.reversed());
+        }
+    }
+
+    @Test
+    public void randomInputsMatch() {
+        Random random = new Random(5);
+        for (int i = 0; i < 500; i++) {
+            List<Element> elements = elements(random.nextInt(200), 1 + random.nextInt(30), random);
+            int k = random.nextInt(elements.size() + 10);
+            Comparator<Element> order = random.nextBoolean() ? BY_KEY : BY_KEY.reversed();
+
+            assertSameAsSortAndLimit(elements, k, order);
+        }
+    }
+
+    @Test
+    public void parallelStreamsMatch() {
+        List<Element> elements = elements(10_000, 50, new Random(6));
+
+        for (int k : new int[] {1, 100, 5_000, 10_000}) {
+            List<Element> expected = elements.stream().sorted(BY_KEY).limit(k).collect(Collectors.toList());
+            assertSameElements(expected, elements.parallelStream().collect(TopK.collector(k, BY_KEY)));
+        }
+    }
+
+    private static void assertSameAsSortAndLimit(List<Element> elements, int k, Comparator<Element> order) {
+        List<Element> expected = elements.stream().sorted(order).limit(k).collect(Collectors.toList());
+        assertSameElements(expected, elements.stream().collect(TopK.collector(k, order)));
+    }
+
+    private static void assertSameElements(List<Element> expected, List<Element> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame("Different element at index " + i, expected.get(i), actual.get(i));
+        }
+    }
+
+    /** Returns elements with keys like "v1.10", the fewer distinct keys the more elements are equal. */
+    private static List<Element> elements(int count, int distinctKeys, Random random) {
+        List<Element> elements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            elements.add(new Element("v1." + random.nextInt(distinctKeys)));
+        }
+        return elements;
+    }
+
+    private static final class Element {
+        private final String key;
+
+        private Element(String key) {
+            this.key = key;
+        }
+    }
+}